@@ -0,0 +1,94 @@
+package net.fredrikmeyer.jisp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The arithmetic built-ins, called directly and from a numeric loop. Run with {@code -prof gc}
+ * to see the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArithmeticBenchmark {
+
+    private final EvalApply evalApply = new AnalyzingEvalApply();
+    private Environment environment;
+    private BuiltInProcedure plus;
+    private BuiltInProcedure lessThan;
+    private NumberLiteral a;
+    private NumberLiteral b;
+    private IntegerLiteral i;
+    private IntegerLiteral j;
+    private LispExpression loop;
+
+    @Setup
+    public void setUp() {
+        environment = new StandardEnvironment();
+        plus = (BuiltInProcedure) environment.lookUpVariable("+");
+        lessThan = (BuiltInProcedure) environment.lookUpVariable("<");
+        a = new NumberLiteral(1.5);
+        b = new NumberLiteral(2.25);
+        i = new IntegerLiteral(12345);
+        j = new IntegerLiteral(67890);
+
+        evalApply.eval(parse("""
+            (defn sum-to (n acc)
+              (if (= n 0)
+                  acc
+                  (sum-to (- n 1) (+ acc n))))
+            """), environment);
+        loop = parse("(sum-to 1000 0)");
+    }
+
+    @Benchmark
+    public LispExpression addTwo() {
+        return plus.apply(a, b);
+    }
+
+    @Benchmark
+    public LispExpression addTwoIntegers() {
+        return plus.apply(i, j);
+    }
+
+    @Benchmark
+    public LispExpression addMany() {
+        return plus.apply(a, b, a, b);
+    }
+
+    @Benchmark
+    public LispExpression compareTwo() {
+        return lessThan.apply(a, b);
+    }
+
+    @Benchmark
+    public LispExpression numericLoop() {
+        return evalApply.eval(loop, environment);
+    }
+
+    private static LispExpression parse(String program) {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(program));
+    }
+}
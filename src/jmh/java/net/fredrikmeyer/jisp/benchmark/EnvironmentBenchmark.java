@@ -0,0 +1,90 @@
+package net.fredrikmeyer.jisp.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cost of creating environments for procedure calls. Run with {@code -prof gc} and look at
+ * {@code gc.alloc.rate.norm} for the bytes allocated per call.
+ * <p>
+ * {@code interpretedFib} runs a call-heavy program on a new evaluator each time, so no procedure
+ * gets hot enough to be analyzed, and every call evaluates its arguments and binds them in a new
+ * environment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentBenchmark {
+
+    private final StandardEvalApply evalApply = new StandardEvalApply();
+    private Environment environment;
+    private Map<String, LispExpression> bindings;
+    private List<String> names;
+    private LispExpression[] values;
+    private LispExpression call;
+    private LispExpression fibCall;
+
+    @Setup
+    public void setUp() {
+        environment = new StandardEnvironment();
+        bindings = Map.of("x", new NumberLiteral(1.0));
+        names = List.of("x");
+        values = new LispExpression[]{new NumberLiteral(1.0)};
+
+        evalApply.eval(parse("(define id (lambda (x) x))"), environment);
+        evalApply.eval(parse(
+            "(defn fib (n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))"), environment);
+        call = parse("(id 1)");
+        fibCall = parse("(fib 8)");
+    }
+
+    @Benchmark
+    public Environment extendEnvironment() {
+        return environment.extendEnvironment(bindings);
+    }
+
+    @Benchmark
+    public Environment extendEnvironmentFromArray() {
+        return environment.extendEnvironment(names, values);
+    }
+
+    @Benchmark
+    public LispExpression callProcedure() {
+        return evalApply.eval(call, environment);
+    }
+
+    @Benchmark
+    public LispExpression interpretedFib() {
+        return new StandardEvalApply().eval(fibCall, environment);
+    }
+
+    @Benchmark
+    public LispExpression lookUpBuiltIn() {
+        return environment.extendEnvironment(bindings).lookUpVariable("+");
+    }
+
+    private static LispExpression parse(String program) {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(program));
+    }
+}
@@ -0,0 +1,113 @@
+package net.fredrikmeyer.jisp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.CompilingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Recursive workloads run through the different evaluators. Compare the {@code evaluator}
+ * parameter to see what analyzing the program up front buys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    private static final String FIB = """
+        (defn fib (n)
+          (if (< n 2)
+              n
+              (+ (fib (- n 1)) (fib (- n 2)))))
+        """;
+
+    private static final String TAK = """
+        (defn tak (x y z)
+          (if (< y x)
+              (tak (tak (- x 1) y z)
+                   (tak (- y 1) z x)
+                   (tak (- z 1) x y))
+              z))
+        """;
+
+    private static final String SQRT = """
+        (begin
+          (define sqrt-iter (lambda (guess x)
+                              (if (good-enough? guess x)
+                                guess
+                                (sqrt-iter (improve guess x) x))))
+          (define good-enough? (lambda (guess x)
+                                 (< (abs (- (square guess) x)) 0.0000001)))
+          (define improve (lambda (guess x)
+                            (average guess (/ x guess))))
+          (define average (lambda (a b)
+                            (* 0.5 (+ a b))))
+          (define square (lambda (x) (* x x))))
+        """;
+
+    @Param({"standard", "analyzing", "compiling"})
+    public String evaluator;
+
+    private EvalApply evalApply;
+    private Environment environment;
+    private LispExpression fibCall;
+    private LispExpression takCall;
+    private LispExpression sqrtCall;
+
+    @Setup
+    public void setUp() {
+        evalApply = switch (evaluator) {
+            case "standard" -> new StandardEvalApply();
+            case "analyzing" -> new AnalyzingEvalApply();
+            case "compiling" -> new CompilingEvalApply();
+            default -> throw new IllegalArgumentException("Unknown evaluator: " + evaluator);
+        };
+        environment = new StandardEnvironment();
+        evalApply.eval(parse(FIB), environment);
+        evalApply.eval(parse(TAK), environment);
+        evalApply.eval(parse(SQRT), environment);
+
+        fibCall = parse("(fib 15)");
+        takCall = parse("(tak 12 8 4)");
+        sqrtCall = parse("(sqrt-iter 1.0 12345.0)");
+    }
+
+    @Benchmark
+    public LispExpression fib() {
+        return evalApply.eval(fibCall, environment);
+    }
+
+    @Benchmark
+    public LispExpression tak() {
+        return evalApply.eval(takCall, environment);
+    }
+
+    @Benchmark
+    public LispExpression sqrtIter() {
+        return evalApply.eval(sqrtCall, environment);
+    }
+
+    private static LispExpression parse(String program) {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(program));
+    }
+}
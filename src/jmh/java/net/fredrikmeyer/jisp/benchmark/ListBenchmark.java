@@ -0,0 +1,93 @@
+package net.fredrikmeyer.jisp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@code map} and {@code filter} built-ins over large lists, with both a built-in and a user
+ * defined procedure, and their parallel versions {@code pmap} and {@code pfilter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final EvalApply evalApply = new AnalyzingEvalApply();
+    private Environment environment;
+    private LispExpression mapBuiltIn;
+    private LispExpression mapLambda;
+    private LispExpression filterLambda;
+    private LispExpression pmapLambda;
+    private LispExpression pfilterLambda;
+
+    @Setup
+    public void setUp() {
+        environment = new StandardEnvironment();
+
+        StringBuilder numbers = new StringBuilder("(define numbers '(");
+        for (int i = 0; i < size; i++) {
+            numbers.append(i % 2 == 0 ? " " : " -").append(i);
+        }
+        evalApply.eval(parse(numbers.append("))").toString()), environment);
+        evalApply.eval(parse("(defn square (x) (* x x))"), environment);
+        evalApply.eval(parse("(defn even? (x) (= (% x 2) 0))"), environment);
+
+        mapBuiltIn = parse("(map abs numbers)");
+        mapLambda = parse("(map square numbers)");
+        filterLambda = parse("(filter even? numbers)");
+        pmapLambda = parse("(pmap square numbers)");
+        pfilterLambda = parse("(pfilter even? numbers)");
+    }
+
+    @Benchmark
+    public LispExpression mapBuiltIn() {
+        return evalApply.eval(mapBuiltIn, environment);
+    }
+
+    @Benchmark
+    public LispExpression mapLambda() {
+        return evalApply.eval(mapLambda, environment);
+    }
+
+    @Benchmark
+    public LispExpression filterLambda() {
+        return evalApply.eval(filterLambda, environment);
+    }
+
+    @Benchmark
+    public LispExpression pmapLambda() {
+        return evalApply.eval(pmapLambda, environment);
+    }
+
+    @Benchmark
+    public LispExpression pfilterLambda() {
+        return evalApply.eval(pfilterLambda, environment);
+    }
+
+    private static LispExpression parse(String program) {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(program));
+    }
+}
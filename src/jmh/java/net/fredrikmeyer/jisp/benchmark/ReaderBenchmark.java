@@ -0,0 +1,165 @@
+package net.fredrikmeyer.jisp.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.parser.InternTable;
+import net.fredrikmeyer.jisp.parser.LispReader;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.CompactTokens;
+import net.fredrikmeyer.jisp.tokenizer.Token;
+import net.fredrikmeyer.jisp.tokenizer.TokenStream;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading programs: tokenizing a large source text, into a list of tokens, into
+ * {@link CompactTokens} or one token at a time, parsing token lists that are deeply nested or
+ * very wide, and reading the same sources in one pass with the {@link LispReader}. The
+ * {@code size} parameter is the number of definitions in the source, the nesting depth and the
+ * number of list elements respectively.
+ * <p>
+ * {@code readQuotedData} reads a quoted list of {@code size} records, most of them repeated,
+ * with and without an {@link InternTable}. With the table, the repeated records are read into
+ * the cells already made for them, so less is allocated and far less is kept.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private String source;
+    private String nestedSource;
+    private String quotedData;
+    private List<Token> nestedTokens;
+    private List<Token> wideTokens;
+
+    @Setup
+    public void setUp() {
+        source = largeSource(size);
+        nestedSource = nested(size);
+        quotedData = quotedData(size);
+        nestedTokens = new TokenizerImpl().tokenize(nestedSource);
+        wideTokens = new TokenizerImpl().tokenize(wide(size));
+    }
+
+    @Benchmark
+    public List<Token> tokenizeLargeSource() {
+        return new TokenizerImpl().tokenize(source);
+    }
+
+    @Benchmark
+    public CompactTokens tokenizeLargeSourceCompact() {
+        return CompactTokens.tokenize(source);
+    }
+
+    /**
+     * Pull every token of the source without keeping them.
+     */
+    @Benchmark
+    public void streamLargeSource(Blackhole blackhole) {
+        var tokens = TokenStream.of(source);
+        while (tokens.hasNext()) {
+            blackhole.consume(tokens.next());
+        }
+    }
+
+    @Benchmark
+    public LispExpression parseDeeplyNested() {
+        return new ParserImpl().parse(nestedTokens);
+    }
+
+    @Benchmark
+    public LispExpression parseWide() {
+        return new ParserImpl().parse(wideTokens);
+    }
+
+    @Benchmark
+    public LispExpression tokenizeAndParse() {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(source));
+    }
+
+    @Benchmark
+    public LispExpression readLargeSource() {
+        return LispReader.parse(source);
+    }
+
+    @Benchmark
+    public LispExpression readDeeplyNested() {
+        return LispReader.parse(nestedSource);
+    }
+
+    @Benchmark
+    public LispExpression readQuotedData() {
+        return LispReader.parse(quotedData);
+    }
+
+    @Benchmark
+    public LispExpression readQuotedDataInterned() {
+        return new LispReader(TokenStream.of(quotedData), new InternTable()).read();
+    }
+
+    /**
+     * A begin form with a mix of definitions, numbers, strings and booleans.
+     */
+    private static String largeSource(int definitions) {
+        StringBuilder source = new StringBuilder("(begin\n");
+        for (int i = 0; i < definitions; i++) {
+            source.append("  (define f").append(i).append(" (lambda (x y)\n")
+                .append("    (if (< x ").append(i).append(".5)\n")
+                .append("        (+ x y -").append(i).append(")\n")
+                .append("        (list \"value ").append(i).append("\" (list #t #f)))))\n");
+        }
+        return source.append(")").toString();
+    }
+
+    /**
+     * '((point 0 0 "red" (tags a b)) (point 1 2 "green" (tags a b)) ...), with ten different
+     * points.
+     */
+    private static String quotedData(int records) {
+        String[] colors = {"red", "green", "blue"};
+        StringBuilder source = new StringBuilder("'(");
+        for (int i = 0; i < records; i++) {
+            int n = i % 10;
+            source.append("(point ").append(n).append(' ').append(2 * n).append(" \"")
+                .append(colors[n % colors.length]).append("\" (tags a b))\n");
+        }
+        return source.append(')').toString();
+    }
+
+    /**
+     * (+ 1 (+ 1 (+ 1 ... 0)))
+     */
+    private static String nested(int depth) {
+        return "(+ 1 ".repeat(depth) + "0" + ")".repeat(depth);
+    }
+
+    /**
+     * (list 0 1 2 ...)
+     */
+    private static String wide(int width) {
+        StringBuilder source = new StringBuilder("(list");
+        for (int i = 0; i < width; i++) {
+            source.append(' ').append(i);
+        }
+        return source.append(')').toString();
+    }
+}
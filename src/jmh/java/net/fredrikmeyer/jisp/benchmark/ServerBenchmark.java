@@ -0,0 +1,136 @@
+package net.fredrikmeyer.jisp.benchmark;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.parser.LispReader;
+import net.fredrikmeyer.jisp.repl.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link Server} under load from many clients at once, each connected on a virtual thread.
+ * {@code roundTrip} has every client send one request and wait for its answer, so its time is
+ * the latency of a request while all clients are active. {@code pipelined} has every client send
+ * a batch of requests before reading the answers; dividing {@code clients * requests} by its
+ * time gives the throughput.
+ * <p>
+ * Each client holds a socket, and the server one more, so thousands of clients may need a higher
+ * limit on open files ({@code ulimit -n}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerBenchmark {
+
+    @Param({"100", "1000"})
+    public int clients;
+
+    @Param({"10"})
+    public int requests;
+
+    private Server server;
+    private final List<Client> connected = new ArrayList<>();
+    private byte[] batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var prelude = new StandardEnvironment();
+        new AnalyzingEvalApply().eval(LispReader.parse(
+            "(defn fib (n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))"), prelude);
+        server = Server.start(0, prelude);
+        for (int i = 0; i < clients; i++) {
+            connected.add(new Client(server.port()));
+        }
+        batch = "(fib 10)\n".repeat(requests).getBytes(UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Client client : connected) {
+            client.socket.close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public int roundTrip() throws Exception {
+        return onEveryClient(client -> {
+            client.out.write("(fib 10)\n".getBytes(UTF_8));
+            client.out.flush();
+            return client.in.readLine().length();
+        });
+    }
+
+    @Benchmark
+    public int pipelined() throws Exception {
+        return onEveryClient(client -> {
+            client.out.write(batch);
+            client.out.flush();
+            int length = 0;
+            for (int i = 0; i < requests; i++) {
+                length += client.in.readLine().length();
+            }
+            return length;
+        });
+    }
+
+    private interface Session {
+
+        int run(Client client) throws IOException;
+    }
+
+    private int onEveryClient(Session session) throws InterruptedException, ExecutionException {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (Client client : connected) {
+                results.add(executor.submit(() -> session.run(client)));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            return total;
+        }
+    }
+
+    private static final class Client {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final OutputStream out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+            out = socket.getOutputStream();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package net.fredrikmeyer.jisp;
+
+import java.math.BigInteger;
+import net.fredrikmeyer.jisp.LispLiteral.BigIntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.LispNumber;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+
+/**
+ * Arithmetic on the numeric tower. Two exact numbers give an exact result, computed on longs as
+ * long as it does not overflow and on {@link BigInteger}s when it does. If either number is
+ * inexact, the result is an inexact double.
+ */
+public final class Arithmetic {
+
+    private Arithmetic() {
+    }
+
+    /**
+     * The exact number with the given value, as an {@link IntegerLiteral} if it fits in a long.
+     */
+    public static LispNumber integer(BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            return IntegerLiteral.of(value.longValue());
+        }
+        return new BigIntegerLiteral(value);
+    }
+
+    public static LispNumber add(LispNumber a, LispNumber b) {
+        if (a instanceof IntegerLiteral(long x) && b instanceof IntegerLiteral(long y)) {
+            long result = x + y;
+            // Overflow iff both operands have a different sign than the result
+            if (((x ^ result) & (y ^ result)) < 0) {
+                return integer(BigInteger.valueOf(x).add(BigInteger.valueOf(y)));
+            }
+            return IntegerLiteral.of(result);
+        }
+        if (isInexact(a, b)) {
+            return NumberLiteral.of(a.doubleValue() + b.doubleValue());
+        }
+        return integer(bigInteger(a).add(bigInteger(b)));
+    }
+
+    public static LispNumber subtract(LispNumber a, LispNumber b) {
+        if (a instanceof IntegerLiteral(long x) && b instanceof IntegerLiteral(long y)) {
+            long result = x - y;
+            // Overflow iff the operands have different signs and the result has not x's sign
+            if (((x ^ y) & (x ^ result)) < 0) {
+                return integer(BigInteger.valueOf(x).subtract(BigInteger.valueOf(y)));
+            }
+            return IntegerLiteral.of(result);
+        }
+        if (isInexact(a, b)) {
+            return NumberLiteral.of(a.doubleValue() - b.doubleValue());
+        }
+        return integer(bigInteger(a).subtract(bigInteger(b)));
+    }
+
+    public static LispNumber multiply(LispNumber a, LispNumber b) {
+        if (a instanceof IntegerLiteral(long x) && b instanceof IntegerLiteral(long y)) {
+            long high = Math.multiplyHigh(x, y);
+            long low = x * y;
+            // No overflow iff the high word is just the sign extension of the low word
+            if (high != (low >> 63)) {
+                return integer(BigInteger.valueOf(x).multiply(BigInteger.valueOf(y)));
+            }
+            return IntegerLiteral.of(low);
+        }
+        if (isInexact(a, b)) {
+            return NumberLiteral.of(a.doubleValue() * b.doubleValue());
+        }
+        return integer(bigInteger(a).multiply(bigInteger(b)));
+    }
+
+    /**
+     * Division is exact when both numbers are exact and the division has no remainder. There are
+     * no rationals, so otherwise the result is inexact: (/ 6 3) is 2, but (/ 5 2) is 2.5.
+     */
+    public static LispNumber divide(LispNumber a, LispNumber b) {
+        if (isInexact(a, b)) {
+            return NumberLiteral.of(a.doubleValue() / b.doubleValue());
+        }
+        // Zero, and -1 (which overflows Long.MIN_VALUE), are left to the general case
+        if (a instanceof IntegerLiteral(long x) && b instanceof IntegerLiteral(long y)
+            && y != 0 && y != -1) {
+            return x % y == 0 ? IntegerLiteral.of(x / y) : NumberLiteral.of((double) x / y);
+        }
+        BigInteger divisor = bigInteger(b);
+        if (divisor.signum() == 0) {
+            throw new RuntimeException("Division by zero");
+        }
+        BigInteger[] quotientAndRemainder = bigInteger(a).divideAndRemainder(divisor);
+        if (quotientAndRemainder[1].signum() == 0) {
+            return integer(quotientAndRemainder[0]);
+        }
+        return NumberLiteral.of(a.doubleValue() / b.doubleValue());
+    }
+
+    /**
+     * The remainder of truncating division, with the sign of the dividend (like Java's %).
+     */
+    public static LispNumber remainder(LispNumber a, LispNumber b) {
+        if (a instanceof IntegerLiteral(long x) && b instanceof IntegerLiteral(long y)) {
+            return IntegerLiteral.of(x % y);
+        }
+        if (isInexact(a, b)) {
+            return NumberLiteral.of(a.doubleValue() % b.doubleValue());
+        }
+        return integer(bigInteger(a).remainder(bigInteger(b)));
+    }
+
+    public static LispNumber abs(LispNumber a) {
+        return switch (a) {
+            case IntegerLiteral(long x) when x == Long.MIN_VALUE ->
+                integer(BigInteger.valueOf(x).negate());
+            case IntegerLiteral(long x) -> x < 0 ? IntegerLiteral.of(-x) : a;
+            case NumberLiteral(double x) -> x > 0 ? a : NumberLiteral.of(Math.abs(x));
+            case BigIntegerLiteral(BigInteger x) -> x.signum() < 0 ? integer(x.negate()) : a;
+        };
+    }
+
+    public static boolean isZero(LispNumber a) {
+        return switch (a) {
+            case IntegerLiteral(long x) -> x == 0;
+            case NumberLiteral(double x) -> x == 0;
+            case BigIntegerLiteral _ -> false;
+        };
+    }
+
+    public static boolean lessThan(LispNumber a, LispNumber b) {
+        if (a instanceof IntegerLiteral(long x) && b instanceof IntegerLiteral(long y)) {
+            return x < y;
+        }
+        if (isInexact(a, b)) {
+            return a.doubleValue() < b.doubleValue();
+        }
+        return bigInteger(a).compareTo(bigInteger(b)) < 0;
+    }
+
+    /**
+     * Numeric equality, so unlike {@code equals} an exact and an inexact number can be equal:
+     * (= 2 2.0) is true.
+     */
+    public static boolean numericEquals(LispNumber a, LispNumber b) {
+        if (a instanceof IntegerLiteral(long x) && b instanceof IntegerLiteral(long y)) {
+            return x == y;
+        }
+        if (isInexact(a, b)) {
+            return a.doubleValue() == b.doubleValue();
+        }
+        return bigInteger(a).equals(bigInteger(b));
+    }
+
+    private static boolean isInexact(LispNumber a, LispNumber b) {
+        return a instanceof NumberLiteral || b instanceof NumberLiteral;
+    }
+
+    private static BigInteger bigInteger(LispNumber number) {
+        return switch (number) {
+            case IntegerLiteral(long value) -> BigInteger.valueOf(value);
+            case BigIntegerLiteral(BigInteger value) -> value;
+            case NumberLiteral _ ->
+                throw new IllegalArgumentException("Not an exact number: " + number);
+        };
+    }
+}
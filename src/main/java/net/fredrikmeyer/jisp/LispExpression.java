@@ -1,21 +1,32 @@
 package net.fredrikmeyer.jisp;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
 import net.fredrikmeyer.jisp.LispExpression.Nil;
 import net.fredrikmeyer.jisp.LispExpression.Ok;
 import net.fredrikmeyer.jisp.LispExpression.Procedure;
 import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
 import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.evaluator.Node;
 
 public sealed interface LispExpression permits LispSymbol, Nil, Ok, Procedure, LispList,
     LispLiteral {
 
     sealed interface Procedure extends LispExpression permits BuiltInProcedure,
-        Procedure.UserProcedure {
+        Procedure.UserProcedure, Procedure.AnalyzedProcedure {
 
+        /**
+         * A procedure implemented in Java. Evaluators call the {@code applyN} method matching the
+         * number of arguments, so that common calls need no array for the arguments. They all
+         * fall back to {@link #apply(LispExpression...)}, which is the only one that has to be
+         * implemented; built-ins override the others where the array can be avoided.
+         */
         non-sealed abstract class BuiltInProcedure implements Procedure {
 
+            private static final LispExpression[] NO_ARGUMENTS = new LispExpression[0];
+
             private final String name;
 
             public BuiltInProcedure(String name) {
@@ -24,6 +35,35 @@ public sealed interface LispExpression permits LispSymbol, Nil, Ok, Procedure, L
 
             public abstract LispExpression apply(LispExpression... values);
 
+            public LispExpression apply0() {
+                return apply(NO_ARGUMENTS);
+            }
+
+            public LispExpression apply1(LispExpression a) {
+                return apply(a);
+            }
+
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                return apply(a, b);
+            }
+
+            public LispExpression apply3(LispExpression a, LispExpression b, LispExpression c) {
+                return apply(a, b, c);
+            }
+
+            /**
+             * Call with the arguments in a list, through the method matching their number.
+             */
+            public final LispExpression applyTo(List<LispExpression> arguments) {
+                return switch (arguments.size()) {
+                    case 0 -> apply0();
+                    case 1 -> apply1(arguments.get(0));
+                    case 2 -> apply2(arguments.get(0), arguments.get(1));
+                    case 3 -> apply3(arguments.get(0), arguments.get(1), arguments.get(2));
+                    default -> apply(arguments.toArray(LispExpression[]::new));
+                };
+            }
+
             @Override
             public String toString() {
                 return "BuiltInProcedure{" + name + "}";
@@ -51,9 +91,54 @@ public sealed interface LispExpression permits LispSymbol, Nil, Ok, Procedure, L
             }
         }
 
+        /**
+         * Like a {@link UserProcedure}, but the lambda has already been analyzed into an
+         * executable {@link Node}, so calling it does not need to look at the syntax of the body
+         * again.
+         *
+         * @param environment
+         * @param lambda
+         */
+        record AnalyzedProcedure(Environment environment, Node.Lambda lambda) implements Procedure {
+
+            @Override
+            public String toString() {
+                return "AnalyzedProcedure{" +
+                       "arguments=" + lambda.arguments() +
+                       ", body=" + lambda.body() +
+                       '}';
+            }
+        }
     }
 
-    record LispSymbol(String name) implements LispExpression {
+    /**
+     * A symbol. There is only ever one symbol per name, made by {@link #of(String)}, so symbols
+     * are compared by reference and reading a name again allocates nothing.
+     */
+    final class LispSymbol implements LispExpression {
+
+        private static final Map<String, LispSymbol> SYMBOLS = new ConcurrentHashMap<>();
+
+        private final String name;
+
+        private LispSymbol(String name) {
+            this.name = name;
+        }
+
+        /**
+         * The interned symbol with this name.
+         */
+        public static LispSymbol of(String name) {
+            LispSymbol symbol = SYMBOLS.get(name);
+            if (symbol != null) {
+                return symbol;
+            }
+            return SYMBOLS.computeIfAbsent(name, LispSymbol::new);
+        }
+
+        public String name() {
+            return name;
+        }
 
         @Override
         public String toString() {
@@ -1,59 +1,116 @@
 package net.fredrikmeyer.jisp;
 
+import java.util.AbstractList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
+/**
+ * A list made of cons cells: each list is its first element (the car) and the list of the rest
+ * (the cdr). Lists are immutable, so {@link #cdr()} and {@link #cons(LispExpression, LispList)}
+ * are O(1) and share structure with the list they came from. The empty list has no car and no
+ * cdr.
+ */
 non-sealed public class LispList implements LispExpression {
 
-    private final List<LispExpression> elements;
+    private static final LispList EMPTY = new LispList();
+
+    private final LispExpression car;
+    private final LispList cdr;
+    private final int length;
 
     public LispList(List<LispExpression> elements) {
-        this.elements = elements;
+        LispExpression[] array = elements.toArray(LispExpression[]::new);
+        if (array.length == 0) {
+            this.car = null;
+            this.cdr = null;
+            this.length = 0;
+        } else {
+            LispList rest = EMPTY;
+            for (int i = array.length - 1; i > 0; i--) {
+                rest = new LispList(Objects.requireNonNull(array[i]), rest);
+            }
+            this.car = Objects.requireNonNull(array[0]);
+            this.cdr = rest;
+            this.length = array.length;
+        }
     }
 
     LispList(LispExpression... elements) {
-        this.elements = List.of(elements);
+        this(List.of(elements));
+    }
+
+    private LispList(LispExpression car, LispList cdr) {
+        this.car = car;
+        this.cdr = cdr;
+        this.length = cdr.length + 1;
+    }
+
+    public static LispList empty() {
+        return EMPTY;
+    }
+
+    /**
+     * A new list with {@code car} in front of {@code cdr}. The cells of {@code cdr} are shared,
+     * not copied.
+     */
+    public static LispList cons(LispExpression car, LispList cdr) {
+        return new LispList(Objects.requireNonNull(car), Objects.requireNonNull(cdr));
     }
 
+    /**
+     * The elements as an unmodifiable list. It is a view walking the cells, so iterating is
+     * O(n) but {@code get(i)} is O(i).
+     */
     public List<LispExpression> elements() {
-        return elements;
+        return new Elements();
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
     }
 
     public LispExpression car() {
-        return elements.getFirst();
+        if (isEmpty()) {
+            throw new NoSuchElementException("car of empty list");
+        }
+        return car;
     }
 
     public LispExpression cadr() {
-        return elements.get(1);
+        return cdr().car();
     }
 
     public LispExpression caddr() {
-        return elements.get(2);
+        return cdr().cdr().car();
     }
 
     public LispExpression cadddr() {
-        return elements.get(3);
+        return cdr().cdr().cdr().car();
     }
 
     public LispList cdr() {
-        return new LispList(elements.subList(1, elements.size()));
-    }
-
-    public void append(LispExpression element) {
-        elements.add(element);
+        if (isEmpty()) {
+            throw new NoSuchElementException("cdr of empty list");
+        }
+        return cdr;
     }
 
     public int length() {
-        return elements.size();
+        return length;
     }
 
     @Override
     public String toString() {
-        String collect = elements.stream()
-            .map(LispExpression::toString)
-            .collect(Collectors.joining(" "));
-        return "(" + collect + ')';
+        StringBuilder builder = new StringBuilder("(");
+        for (LispList list = this; !list.isEmpty(); list = list.cdr) {
+            if (list != this) {
+                builder.append(' ');
+            }
+            builder.append(list.car);
+        }
+        return builder.append(')').toString();
     }
 
     @Override
@@ -64,13 +121,67 @@ non-sealed public class LispList implements LispExpression {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
-        LispList lispList = (LispList) o;
-        return Objects.equals(elements,
-            lispList.elements);
+        LispList other = (LispList) o;
+        if (length != other.length) {
+            return false;
+        }
+        for (LispList a = this, b = other; !a.isEmpty() && a != b; a = a.cdr, b = b.cdr) {
+            if (!a.car.equals(b.car)) {
+                return false;
+            }
+        }
+        return true;
     }
 
+    /**
+     * Same as the hash code of {@link #elements()}, as specified by {@link List#hashCode()}.
+     */
     @Override
     public int hashCode() {
-        return Objects.hashCode(elements);
+        int hashCode = 1;
+        for (LispList list = this; !list.isEmpty(); list = list.cdr) {
+            hashCode = 31 * hashCode + list.car.hashCode();
+        }
+        return hashCode;
+    }
+
+    private final class Elements extends AbstractList<LispExpression> {
+
+        @Override
+        public LispExpression get(int index) {
+            Objects.checkIndex(index, length);
+            LispList list = LispList.this;
+            for (int i = 0; i < index; i++) {
+                list = list.cdr;
+            }
+            return list.car;
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+
+        @Override
+        public Iterator<LispExpression> iterator() {
+            return new Iterator<>() {
+                private LispList current = LispList.this;
+
+                @Override
+                public boolean hasNext() {
+                    return !current.isEmpty();
+                }
+
+                @Override
+                public LispExpression next() {
+                    if (current.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    LispExpression element = current.car;
+                    current = current.cdr;
+                    return element;
+                }
+            };
+        }
     }
 }
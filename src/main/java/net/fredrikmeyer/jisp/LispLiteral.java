@@ -1,16 +1,107 @@
 package net.fredrikmeyer.jisp;
 
+import java.math.BigInteger;
 import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
-import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.LispNumber;
 import net.fredrikmeyer.jisp.LispLiteral.StringLiteral;
 
 /**
  * LispLiterals are expressions that evaluate to themselves (numbers, booleans, strings, ...).
  */
-public sealed interface LispLiteral extends LispExpression permits BoolValue, NumberLiteral,
+public sealed interface LispLiteral extends LispExpression permits BoolValue, LispNumber,
     StringLiteral {
 
-    record NumberLiteral(Double value) implements LispLiteral {
+    /**
+     * The numeric tower. Whole numbers are exact: an {@link IntegerLiteral} while they fit in a
+     * long, and a {@link BigIntegerLiteral} beyond that. A {@link NumberLiteral} is an inexact
+     * floating point number. See {@link Arithmetic} for how they combine.
+     */
+    sealed interface LispNumber extends LispLiteral permits NumberLiteral, IntegerLiteral,
+        BigIntegerLiteral {
+
+        double doubleValue();
+    }
+
+    /// An inexact number: 2.5, 1.0, ...
+    record NumberLiteral(double value) implements LispNumber {
+
+        private static final int CACHE_LOW = -128;
+        private static final int CACHE_HIGH = 1024;
+        private static final NumberLiteral[] CACHE = new NumberLiteral[CACHE_HIGH - CACHE_LOW + 1];
+
+        static {
+            for (int i = 0; i < CACHE.length; i++) {
+                CACHE[i] = new NumberLiteral(i + CACHE_LOW);
+            }
+        }
+
+        /**
+         * Like the constructor, but small whole numbers (counters, indices, 0 and 1) come from a
+         * cache instead of being allocated every time.
+         */
+        public static NumberLiteral of(double value) {
+            int i = (int) value;
+            // -0.0 is not equal to 0.0, so it must not be taken from the cache.
+            if (i == value && i >= CACHE_LOW && i <= CACHE_HIGH
+                && (i != 0 || Double.doubleToRawLongBits(value) == 0)) {
+                return CACHE[i - CACHE_LOW];
+            }
+            return new NumberLiteral(value);
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return Double.toString(value);
+        }
+    }
+
+    /// An exact whole number that fits in a long.
+    record IntegerLiteral(long value) implements LispNumber {
+
+        private static final int CACHE_LOW = -128;
+        private static final int CACHE_HIGH = 1024;
+        private static final IntegerLiteral[] CACHE = new IntegerLiteral[CACHE_HIGH - CACHE_LOW + 1];
+
+        static {
+            for (int i = 0; i < CACHE.length; i++) {
+                CACHE[i] = new IntegerLiteral(i + CACHE_LOW);
+            }
+        }
+
+        /**
+         * Like the constructor, but small numbers come from a cache.
+         */
+        public static IntegerLiteral of(long value) {
+            if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+                return CACHE[(int) value - CACHE_LOW];
+            }
+            return new IntegerLiteral(value);
+        }
+
+        @Override
+        public double doubleValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return Long.toString(value);
+        }
+    }
+
+    /// An exact whole number too large for a long. Anything that fits in a long is an
+    /// {@link IntegerLiteral} instead, so that each number has only one representation.
+    record BigIntegerLiteral(BigInteger value) implements LispNumber {
+
+        @Override
+        public double doubleValue() {
+            return value.doubleValue();
+        }
 
         @Override
         public String toString() {
@@ -29,6 +120,13 @@ public sealed interface LispLiteral extends LispExpression permits BoolValue, Nu
 
     record BoolValue(boolean value) implements LispLiteral {
 
+        public static final BoolValue TRUE = new BoolValue(true);
+        public static final BoolValue FALSE = new BoolValue(false);
+
+        public static BoolValue of(boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
         @Override
         public String toString() {
             return value ? "#t" : "#f";
@@ -0,0 +1,102 @@
+package net.fredrikmeyer.jisp;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import net.fredrikmeyer.jisp.LispExpression.Ok;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.StringLiteral;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.parser.InternTable;
+import net.fredrikmeyer.jisp.parser.LispReader;
+import net.fredrikmeyer.jisp.tokenizer.TokenStream;
+
+/**
+ * Runs a program made of several top-level forms, like a source file. Each form is evaluated as
+ * soon as it has been read, before the next one is parsed, so a form that has been run can be
+ * garbage collected and the program never needs to be wrapped in a {@code begin}.
+ * <p>
+ * Source can optionally be read through an {@link InternTable}, so that equal literals and quoted
+ * data in everything loaded with the same table, in one file or several, are the same object.
+ */
+public final class Loader {
+
+    private Loader() {
+    }
+
+    /**
+     * Run the UTF-8 source file in the environment. The file is memory-mapped and tokenized
+     * straight from its bytes, so even very large files are not copied onto the heap.
+     *
+     * @return the value of the last form, or {@link Ok} if there are none
+     */
+    public static LispExpression load(Path file, EvalApply evalApply, Environment environment)
+        throws IOException {
+        return load(file, evalApply, environment, null);
+    }
+
+    /**
+     * Run the UTF-8 source file in the environment, interning its data in the table.
+     *
+     * @param table the table to intern data in, or null to not intern it
+     * @return the value of the last form, or {@link Ok} if there are none
+     */
+    public static LispExpression load(Path file, EvalApply evalApply, Environment environment,
+                                      InternTable table) throws IOException {
+        return load(TokenStream.map(file), evalApply, environment, table);
+    }
+
+    /**
+     * Run the source read from the reader in the environment.
+     *
+     * @return the value of the last form, or {@link Ok} if there are none
+     */
+    public static LispExpression load(Reader reader, EvalApply evalApply,
+                                      Environment environment) {
+        return load(reader, evalApply, environment, null);
+    }
+
+    /**
+     * Run the source read from the reader in the environment, interning its data in the table.
+     *
+     * @param table the table to intern data in, or null to not intern it
+     * @return the value of the last form, or {@link Ok} if there are none
+     */
+    public static LispExpression load(Reader reader, EvalApply evalApply,
+                                      Environment environment, InternTable table) {
+        return load(new TokenStream(reader), evalApply, environment, table);
+    }
+
+    /**
+     * A {@code load} procedure for a top-level environment: {@code (load "file.scm")} runs the
+     * file in that environment and returns the value of its last form.
+     */
+    public static BuiltInProcedure procedure(EvalApply evalApply, Environment environment) {
+        return new BuiltInProcedure("load") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                if (values.length != 1 || !(values[0] instanceof StringLiteral(var fileName))) {
+                    throw new RuntimeException("load expects a file name");
+                }
+                try {
+                    return load(Path.of(fileName), evalApply, environment);
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not load " + fileName + ": " + e, e);
+                }
+            }
+        };
+    }
+
+    private static LispExpression load(TokenStream tokens, EvalApply evalApply,
+                                       Environment environment, InternTable table) {
+        try (var reader = new LispReader(tokens, table)) {
+            LispExpression result = new Ok();
+            LispExpression form;
+            while ((form = reader.read()) != null) {
+                result = evalApply.eval(form, environment);
+            }
+            return result;
+        }
+    }
+}
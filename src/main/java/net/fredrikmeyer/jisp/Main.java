@@ -1,10 +1,44 @@
 package net.fredrikmeyer.jisp;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.parser.InternTable;
 import net.fredrikmeyer.jisp.repl.JLineRepl;
+import net.fredrikmeyer.jisp.repl.Server;
 
 public class Main {
-    public static void main(String[] args) throws IOException {
+    /**
+     * Run the source files given as arguments, or start the REPL if there are none. With
+     * {@code --serve port}, serve REPL sessions on the port instead, with any files that follow
+     * loaded as a prelude shared by the sessions. The prelude lives as long as the server, so its
+     * data is interned, to share equal literals and quoted data between the files.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 1 && args[0].equals("--serve")) {
+            var evalApply = new AnalyzingEvalApply();
+            var prelude = new StandardEnvironment();
+            var table = new InternTable();
+            for (String file : Arrays.asList(args).subList(2, args.length)) {
+                Loader.load(Path.of(file), evalApply, prelude, table);
+            }
+            var server = Server.start(Integer.parseInt(args[1]), prelude);
+            System.out.println("Serving on port " + server.port());
+            server.join();
+            return;
+        }
+        if (args.length > 0) {
+            var evalApply = new AnalyzingEvalApply();
+            var environment = new StandardEnvironment();
+            environment.setVariable("load", Loader.procedure(evalApply, environment));
+            for (String file : args) {
+                System.out.println(Loader.load(Path.of(file), evalApply, environment));
+            }
+            return;
+        }
+
         var repl = new JLineRepl();
 
         repl.start();
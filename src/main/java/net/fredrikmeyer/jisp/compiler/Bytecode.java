@@ -0,0 +1,199 @@
+package net.fredrikmeyer.jisp.compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The code of one method. Only the handful of instructions the {@link Compiler} needs are
+ * supported. The operand stack depth is tracked as instructions are added, so that the maximum
+ * can be written to the class file.
+ */
+final class Bytecode {
+
+    static final int AALOAD = 0x32;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int IFEQ = 0x99;
+    static final int IF_ACMPNE = 0xa6;
+    static final int GOTO = 0xa7;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETFIELD = 0xb4;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int ANEWARRAY = 0xbd;
+
+    /**
+     * A position in the code that jumps can refer to before it is known.
+     */
+    static final class Label {
+
+        private int position = -1;
+        private final List<Integer> jumps = new ArrayList<>();
+    }
+
+    private byte[] code = new byte[64];
+    private int length;
+    private int stack;
+    private int maxStack;
+    private int maxLocals;
+    private final List<Label> labels = new ArrayList<>();
+
+    Bytecode(int maxLocals) {
+        this.maxLocals = maxLocals;
+    }
+
+    /**
+     * An instruction without operands that changes the stack depth by {@code stackChange}.
+     */
+    void op(int opcode, int stackChange) {
+        u1(opcode);
+        adjustStack(stackChange);
+    }
+
+    /**
+     * An instruction with a constant pool index operand.
+     */
+    void op(int opcode, int constant, int stackChange) {
+        u1(opcode);
+        u2(constant);
+        adjustStack(stackChange);
+    }
+
+    void aload(int local) {
+        if (local <= 3) {
+            u1(0x2a + local);
+        } else {
+            u1(0x19);
+            u1(checkedLocal(local));
+        }
+        adjustStack(1);
+    }
+
+    void astore(int local) {
+        if (local <= 3) {
+            u1(0x4b + local);
+        } else {
+            u1(0x3a);
+            u1(checkedLocal(local));
+        }
+        adjustStack(-1);
+    }
+
+    void iload(int local) {
+        if (local <= 3) {
+            u1(0x1a + local);
+        } else {
+            u1(0x15);
+            u1(checkedLocal(local));
+        }
+        adjustStack(1);
+    }
+
+    void iconst(int value) {
+        if (value >= -1 && value <= 5) {
+            u1(0x03 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            u1(0x10);
+            u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            u1(0x11);
+            u2(value);
+        } else {
+            throw new IllegalArgumentException("Constant too large: " + value);
+        }
+        adjustStack(1);
+    }
+
+    void ldc(int constant) {
+        if (constant <= 0xff) {
+            u1(0x12);
+            u1(constant);
+        } else {
+            u1(0x13);
+            u2(constant);
+        }
+        adjustStack(1);
+    }
+
+    void jump(int opcode, Label target, int stackChange) {
+        if (target.jumps.isEmpty()) {
+            labels.add(target);
+        }
+        target.jumps.add(length);
+        u1(opcode);
+        u2(0);
+        adjustStack(stackChange);
+    }
+
+    void mark(Label label) {
+        label.position = length;
+    }
+
+    int stack() {
+        return stack;
+    }
+
+    /**
+     * Set the stack depth after an unconditional jump or a return, where the depth is whatever
+     * it was at the jumps to the next label.
+     */
+    void resetStack(int depth) {
+        stack = depth;
+    }
+
+    int maxStack() {
+        return maxStack;
+    }
+
+    int maxLocals() {
+        return maxLocals;
+    }
+
+    /**
+     * The finished code, with the jumps pointing at their labels.
+     */
+    byte[] toByteArray() {
+        for (Label label : labels) {
+            if (label.position < 0) {
+                throw new IllegalStateException("Label was never marked");
+            }
+            for (int jump : label.jumps) {
+                int offset = label.position - jump;
+                if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Jump too far: " + offset);
+                }
+                code[jump + 1] = (byte) (offset >> 8);
+                code[jump + 2] = (byte) offset;
+            }
+        }
+        return Arrays.copyOf(code, length);
+    }
+
+    private void adjustStack(int change) {
+        stack += change;
+        maxStack = Math.max(maxStack, stack);
+    }
+
+    private int checkedLocal(int local) {
+        maxLocals = Math.max(maxLocals, local + 1);
+        if (local > 0xff) {
+            throw new IllegalArgumentException("Too many locals: " + local);
+        }
+        return local;
+    }
+
+    private void u1(int value) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, code.length * 2);
+        }
+        code[length++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        u1(value >> 8);
+        u1(value);
+    }
+}
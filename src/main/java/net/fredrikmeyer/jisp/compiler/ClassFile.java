@@ -0,0 +1,161 @@
+package net.fredrikmeyer.jisp.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a class file. The class files are version 49 (Java 5), the last version that does not
+ * need stack map frames, so the {@link Compiler} does not have to compute them.
+ */
+final class ClassFile {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int MAJOR_VERSION = 49;
+
+    private record Method(int access, int name, int descriptor, Bytecode code) {
+
+    }
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndices = new HashMap<>();
+    private int poolCount = 1;
+
+    private final int thisClass;
+    private final int superClass;
+    private final List<Method> methods = new ArrayList<>();
+
+    /**
+     * @param name       the internal name of the class, like {@code a/b/C}
+     * @param superClass the internal name of the super class
+     */
+    ClassFile(String name, String superClass) {
+        this.thisClass = classRef(name);
+        this.superClass = classRef(superClass);
+    }
+
+    void method(int access, String name, String descriptor, Bytecode code) {
+        methods.add(new Method(access, utf8(name), utf8(descriptor), code));
+    }
+
+    int utf8(String value) {
+        return constant("Utf8:" + value, out -> {
+            out.writeByte(1);
+            out.writeUTF(value);
+        });
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("Class:" + internalName, out -> {
+            out.writeByte(7);
+            out.writeShort(name);
+        });
+    }
+
+    int string(String value) {
+        int utf8 = utf8(value);
+        return constant("String:" + value, out -> {
+            out.writeByte(8);
+            out.writeShort(utf8);
+        });
+    }
+
+    int fieldRef(String owner, String name, String descriptor) {
+        return memberRef(9, owner, name, descriptor);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        return memberRef(10, owner, name, descriptor);
+    }
+
+    byte[] toByteArray() {
+        int code = utf8("Code");
+        try {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(methods.size());
+            for (Method method : methods) {
+                byte[] instructions = method.code().toByteArray();
+                out.writeShort(method.access());
+                out.writeShort(method.name());
+                out.writeShort(method.descriptor());
+                out.writeShort(1); // attributes
+                out.writeShort(code);
+                out.writeInt(12 + instructions.length);
+                out.writeShort(method.code().maxStack());
+                out.writeShort(method.code().maxLocals());
+                out.writeInt(instructions.length);
+                out.write(instructions);
+                out.writeShort(0); // exception table
+                out.writeShort(0); // attributes
+            }
+            out.writeShort(0); // attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int memberRef(int tag, String owner, String name, String descriptor) {
+        int ownerIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        return constant(tag + ":" + owner + "." + name + descriptor, out -> {
+            out.writeByte(tag);
+            out.writeShort(ownerIndex);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        return constant("NameAndType:" + name + descriptor, out -> {
+            out.writeByte(12);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+        });
+    }
+
+    private interface Entry {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private int constant(String key, Entry entry) {
+        Integer index = poolIndices.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            entry.write(poolOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (poolCount > 0xffff) {
+            throw new IllegalStateException("Constant pool is full");
+        }
+        poolIndices.put(key, poolCount);
+        return poolCount++;
+    }
+}
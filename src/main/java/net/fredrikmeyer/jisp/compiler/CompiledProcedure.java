@@ -0,0 +1,218 @@
+package net.fredrikmeyer.jisp.compiler;
+
+import java.util.Arrays;
+import net.fredrikmeyer.jisp.Arithmetic;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Nil;
+import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.LispNumber;
+import net.fredrikmeyer.jisp.environment.BuiltInEnvironment;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.InlineCache;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+
+/**
+ * A user procedure compiled to JVM bytecode by the {@link Compiler}. Each compiled procedure is
+ * an instance of its own hidden subclass, which implements {@link #body}.
+ * <p>
+ * To every evaluator it looks like a built-in procedure, so it is called straight through
+ * {@link #apply}. The static methods are the runtime support the generated code calls into.
+ */
+public abstract class CompiledProcedure extends BuiltInProcedure {
+
+    private static final AnalyzingEvalApply INTERPRETER = new AnalyzingEvalApply();
+
+    private static final LispExpression PLUS = builtIn("+");
+    private static final LispExpression MINUS = builtIn("-");
+    private static final LispExpression TIMES = builtIn("*");
+    private static final LispExpression LESS_THAN = builtIn("<");
+    private static final LispExpression EQUALS = builtIn("=");
+
+    protected final Environment environment;
+    protected final LispExpression[] constants;
+    protected final InlineCache[] caches;
+    private final Procedure interpreted;
+    private final int arity;
+
+    /**
+     * @param name        the name the procedure was defined with
+     * @param environment the environment the procedure was created in, where free variables
+     *                    are looked up
+     * @param constants   the constants referred to by the generated code, by index
+     * @param caches      the caches of the global variables referred to by the generated code,
+     *                    by index
+     * @param interpreted the same procedure, for calls the generated code does not handle
+     * @param arity       the number of arguments the generated code takes
+     */
+    protected CompiledProcedure(String name, Environment environment, LispExpression[] constants,
+                                InlineCache[] caches, Procedure interpreted, int arity) {
+        super(name);
+        this.environment = environment;
+        this.constants = constants;
+        this.caches = caches;
+        this.interpreted = interpreted;
+        this.arity = arity;
+    }
+
+    /**
+     * The compiled body. The arguments are exactly {@code arity} values. A call in tail position
+     * may be returned as a {@link TailCall} rather than made.
+     */
+    protected abstract LispExpression body(LispExpression[] arguments);
+
+    @Override
+    public final LispExpression apply(LispExpression... values) {
+        LispExpression result = invoke(values);
+        while (result instanceof TailCall tailCall) {
+            result = tailCall.resume();
+        }
+        return result;
+    }
+
+    public Procedure interpreted() {
+        return interpreted;
+    }
+
+    @Override
+    public String toString() {
+        return interpreted.toString();
+    }
+
+    private LispExpression invoke(LispExpression[] values) {
+        if (values.length != arity) {
+            // Missing arguments and arity errors are left to the interpreter.
+            return INTERPRETER.apply(interpreted, Arrays.asList(values));
+        }
+        return body(values);
+    }
+
+    static LispExpression global(InlineCache cache, Environment environment, String name) {
+        LispExpression value = cache.lookUp(environment, name);
+        if (value == null) {
+            return new Nil();
+        }
+        return value;
+    }
+
+    static boolean isTrue(LispExpression value) {
+        return StandardEvalApply.isTrueIsh(value);
+    }
+
+    static LispExpression call(LispExpression procedure, LispExpression[] arguments,
+                               LispExpression source) {
+        return switch (procedure) {
+            case BuiltInProcedure builtInProcedure -> builtInProcedure.apply(arguments);
+            case Procedure p -> INTERPRETER.apply(p, Arrays.asList(arguments));
+            default -> throw new RuntimeException(
+                "Procedure expected, got: " + procedure + ". Expression: " + source);
+        };
+    }
+
+    /**
+     * A call in tail position. Built-ins are called right away. Anything else is handed back to
+     * {@link #apply}, so that procedures calling each other in tail position do not grow the
+     * Java stack. Built-ins that call procedures, like {@code map}, {@code pmap} and memoized
+     * procedures, call them on the Java stack, so tail calls through them do grow it.
+     */
+    static LispExpression tailCall(LispExpression procedure, LispExpression[] arguments,
+                                   LispExpression source) {
+        return switch (procedure) {
+            case CompiledProcedure compiledProcedure -> new TailCall(compiledProcedure, arguments);
+            case BuiltInProcedure builtInProcedure -> builtInProcedure.apply(arguments);
+            case Procedure p -> new TailCall(p, arguments);
+            default -> throw new RuntimeException(
+                "Procedure expected, got: " + procedure + ". Expression: " + source);
+        };
+    }
+
+    static LispExpression add(LispExpression procedure, LispExpression a, LispExpression b,
+                              LispExpression source) {
+        if (procedure == PLUS && a instanceof LispNumber x && b instanceof LispNumber y) {
+            return Arithmetic.add(x, y);
+        }
+        return call(procedure, a, b, source);
+    }
+
+    static LispExpression subtract(LispExpression procedure, LispExpression a, LispExpression b,
+                                   LispExpression source) {
+        if (procedure == MINUS && a instanceof LispNumber x && b instanceof LispNumber y) {
+            return Arithmetic.subtract(x, y);
+        }
+        return call(procedure, a, b, source);
+    }
+
+    static LispExpression multiply(LispExpression procedure, LispExpression a, LispExpression b,
+                                   LispExpression source) {
+        if (procedure == TIMES && a instanceof LispNumber x && b instanceof LispNumber y) {
+            return Arithmetic.multiply(x, y);
+        }
+        return call(procedure, a, b, source);
+    }
+
+    static LispExpression lessThan(LispExpression procedure, LispExpression a, LispExpression b,
+                                   LispExpression source) {
+        if (procedure == LESS_THAN && a instanceof LispNumber x && b instanceof LispNumber y) {
+            return BoolValue.of(Arithmetic.lessThan(x, y));
+        }
+        return call(procedure, a, b, source);
+    }
+
+    static LispExpression numericEquals(LispExpression procedure, LispExpression a,
+                                        LispExpression b, LispExpression source) {
+        if (procedure == EQUALS && a instanceof LispNumber x && b instanceof LispNumber y) {
+            return BoolValue.of(Arithmetic.numericEquals(x, y));
+        }
+        return call(procedure, a, b, source);
+    }
+
+    /**
+     * The fallback of the binary operations: a call with two arguments, which a built-in takes
+     * without an array.
+     */
+    private static LispExpression call(LispExpression procedure, LispExpression a,
+                                       LispExpression b, LispExpression source) {
+        if (procedure instanceof BuiltInProcedure builtInProcedure) {
+            return builtInProcedure.apply2(a, b);
+        }
+        return call(procedure, new LispExpression[]{a, b}, source);
+    }
+
+    private static LispExpression builtIn(String name) {
+        return BuiltInEnvironment.getInstance().lookUpVariable(name);
+    }
+
+    /**
+     * A call that still has to be made. Only ever returned from {@link #body} to
+     * {@link #apply}, never seen by Lisp code.
+     */
+    private static final class TailCall extends BuiltInProcedure {
+
+        private final Procedure procedure;
+        private final LispExpression[] arguments;
+
+        TailCall(Procedure procedure, LispExpression[] arguments) {
+            super("tail call");
+            this.procedure = procedure;
+            this.arguments = arguments;
+        }
+
+        LispExpression resume() {
+            if (procedure instanceof CompiledProcedure compiledProcedure) {
+                return compiledProcedure.invoke(arguments);
+            }
+            return call(procedure, arguments, null);
+        }
+
+        @Override
+        public LispExpression apply(LispExpression... values) {
+            LispExpression result = resume();
+            while (result instanceof TailCall tailCall) {
+                result = tailCall.resume();
+            }
+            return result;
+        }
+    }
+}
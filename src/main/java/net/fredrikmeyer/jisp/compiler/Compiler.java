@@ -0,0 +1,367 @@
+package net.fredrikmeyer.jisp.compiler;
+
+import static net.fredrikmeyer.jisp.compiler.Bytecode.AALOAD;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.AASTORE;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.ANEWARRAY;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.ARETURN;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.DUP;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.GETFIELD;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.GOTO;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.IFEQ;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.IF_ACMPNE;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.INVOKESPECIAL;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.INVOKESTATIC;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.POP;
+import static net.fredrikmeyer.jisp.compiler.Bytecode.RETURN;
+
+import java.io.Serial;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.evaluator.Analyzer;
+import net.fredrikmeyer.jisp.evaluator.InlineCache;
+import net.fredrikmeyer.jisp.evaluator.Node;
+import net.fredrikmeyer.jisp.evaluator.Node.Application;
+import net.fredrikmeyer.jisp.evaluator.Node.Conditional;
+import net.fredrikmeyer.jisp.evaluator.Node.Constant;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalReference;
+import net.fredrikmeyer.jisp.evaluator.Node.Lambda;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalReference;
+import net.fredrikmeyer.jisp.evaluator.Node.Sequence;
+
+/**
+ * Compiles user procedures to JVM bytecode. Each procedure becomes a hidden class extending
+ * {@link CompiledProcedure}, which HotSpot can JIT compile like any other Java code: arguments
+ * live in local variables, conditionals are jumps and calls are direct method calls.
+ * <p>
+ * Only a subset of the language is compiled: constants, variables, {@code if}, {@code begin}
+ * and procedure calls. A procedure using anything else (nested lambdas, {@code define} or
+ * {@code set!} in the body) is not compiled, and {@link #compile} returns an empty optional so
+ * that the caller keeps interpreting it.
+ * <p>
+ * A call of a procedure to itself in tail position is compiled to a jump back to the start of
+ * the method. Other calls in tail position are trampolined through {@link CompiledProcedure#apply},
+ * so tail calls still run in constant stack.
+ */
+public class Compiler {
+
+    private static final String LISP_EXPRESSION = "net/fredrikmeyer/jisp/LispExpression";
+    private static final String EXPRESSION = "L" + LISP_EXPRESSION + ";";
+    private static final String ENVIRONMENT = "Lnet/fredrikmeyer/jisp/environment/Environment;";
+    private static final String PROCEDURE = "Lnet/fredrikmeyer/jisp/LispExpression$Procedure;";
+    private static final String INLINE_CACHE = "Lnet/fredrikmeyer/jisp/evaluator/InlineCache;";
+    private static final String COMPILED_PROCEDURE =
+        "net/fredrikmeyer/jisp/compiler/CompiledProcedure";
+
+    private static final String CONSTRUCTOR =
+        "(Ljava/lang/String;" + ENVIRONMENT + "[" + EXPRESSION + "[" + INLINE_CACHE + PROCEDURE
+        + "I)V";
+    private static final String BODY = "([" + EXPRESSION + ")" + EXPRESSION;
+    private static final String CALL = "(" + EXPRESSION + "[" + EXPRESSION + EXPRESSION + ")"
+                                       + EXPRESSION;
+    private static final String BINARY_OPERATION =
+        "(" + EXPRESSION + EXPRESSION + EXPRESSION + EXPRESSION + ")" + EXPRESSION;
+
+    /**
+     * Built-ins with two arguments that are called through a fast path in
+     * {@link CompiledProcedure}, by the name of the method doing it.
+     */
+    private static final Map<String, String> BINARY_OPERATIONS = Map.of(
+        "+", "add",
+        "-", "subtract",
+        "*", "multiply",
+        "<", "lessThan",
+        "=", "numericEquals");
+
+    private static final int THIS = 0;
+    private static final int ARGUMENTS = 1;
+    private static final int FIRST_PARAMETER = 2;
+
+    private final Analyzer analyzer = new Analyzer();
+
+    public Optional<CompiledProcedure> compile(String name, AnalyzedProcedure procedure) {
+        return compile(name, procedure.lambda(), procedure.environment(), procedure);
+    }
+
+    public Optional<CompiledProcedure> compile(String name, UserProcedure procedure) {
+        return compile(name, analyzer.analyzeProcedure(procedure), procedure.environment(),
+            procedure);
+    }
+
+    private Optional<CompiledProcedure> compile(String name, Lambda lambda,
+                                                Environment environment,
+                                                Procedure interpreted) {
+        byte[] classFile;
+        List<LispExpression> constants;
+        List<InlineCache> caches;
+        try {
+            var generator = new Generator(name, lambda);
+            classFile = generator.generate();
+            constants = generator.constants;
+            caches = generator.caches;
+        } catch (NotCompilable e) {
+            return Optional.empty();
+        }
+
+        try {
+            Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+            var constructor = lookup.findConstructor(lookup.lookupClass(),
+                MethodType.methodType(void.class, String.class, Environment.class,
+                    LispExpression[].class, InlineCache[].class, Procedure.class, int.class));
+
+            return Optional.of((CompiledProcedure) constructor.invoke(name, environment,
+                constants.toArray(LispExpression[]::new), caches.toArray(InlineCache[]::new),
+                interpreted, lambda.arguments().size()));
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not load the compiled code for " + name, e);
+        }
+    }
+
+    /**
+     * Thrown while generating code for something the compiler does not handle.
+     */
+    private static final class NotCompilable extends RuntimeException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        NotCompilable(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Generates the class for one procedure.
+     */
+    private static final class Generator {
+
+        private final String name;
+        private final Lambda lambda;
+        private final int arity;
+        private final ClassFile classFile;
+        private final List<LispExpression> constants = new ArrayList<>();
+        private final List<InlineCache> caches = new ArrayList<>();
+        private final Bytecode code;
+        private final Bytecode.Label start = new Bytecode.Label();
+        private final int temporary;
+
+        Generator(String name, Lambda lambda) {
+            this.name = name;
+            this.lambda = lambda;
+            this.arity = lambda.arguments().size();
+            this.classFile = new ClassFile(COMPILED_PROCEDURE.replace("CompiledProcedure",
+                "Lambda$" + name.replaceAll("[^A-Za-z0-9_]", "_")), COMPILED_PROCEDURE);
+            this.temporary = FIRST_PARAMETER + arity;
+            this.code = new Bytecode(temporary + 1);
+        }
+
+        byte[] generate() {
+            if (lambda.variables().size() != arity) {
+                throw new NotCompilable("Internal definitions");
+            }
+
+            var constructor = new Bytecode(7);
+            constructor.aload(THIS);
+            for (int i = 1; i <= 5; i++) {
+                constructor.aload(i);
+            }
+            constructor.iload(6);
+            constructor.op(INVOKESPECIAL,
+                classFile.methodRef(COMPILED_PROCEDURE, "<init>", CONSTRUCTOR), -7);
+            constructor.op(RETURN, 0);
+            classFile.method(ClassFile.ACC_PUBLIC, "<init>", CONSTRUCTOR, constructor);
+
+            // Copy the arguments into local variables. A tail call to the procedure itself
+            // overwrites them and jumps back to the start.
+            for (int i = 0; i < arity; i++) {
+                code.aload(ARGUMENTS);
+                code.iconst(i);
+                code.op(AALOAD, -1);
+                code.astore(FIRST_PARAMETER + i);
+            }
+            code.mark(start);
+            emit(lambda.code(), true);
+            classFile.method(ClassFile.ACC_PROTECTED, "body", BODY, code);
+
+            return classFile.toByteArray();
+        }
+
+        /**
+         * Push the value of the node. In tail position, return it instead.
+         */
+        private void emit(Node node, boolean tail) {
+            switch (node) {
+                case Constant(var value) -> {
+                    constant(value);
+                    returnIf(tail);
+                }
+                case LocalReference(var _, var depth, var index) -> {
+                    if (depth != 0) {
+                        throw new NotCompilable("Free variable in enclosing procedure");
+                    }
+                    code.aload(FIRST_PARAMETER + index);
+                    returnIf(tail);
+                }
+                case GlobalReference(var variable, var depth, var cache) -> {
+                    global(variable, depth, cache);
+                    returnIf(tail);
+                }
+                case Conditional(var condition, var then, var otherwise) ->
+                    conditional(condition, then, otherwise, tail);
+                case Sequence(var forms) -> {
+                    if (forms.isEmpty()) {
+                        throw new NotCompilable("Empty begin");
+                    }
+                    for (int i = 0; i < forms.size() - 1; i++) {
+                        emit(forms.get(i), false);
+                        code.op(POP, -1);
+                    }
+                    emit(forms.getLast(), tail);
+                }
+                case Application application -> application(application, tail);
+                default -> throw new NotCompilable("Not supported: " + node);
+            }
+        }
+
+        private void conditional(Node condition, Node then, Node otherwise, boolean tail) {
+            var otherwiseLabel = new Bytecode.Label();
+            emit(condition, false);
+            code.op(INVOKESTATIC, classFile.methodRef(COMPILED_PROCEDURE, "isTrue",
+                "(" + EXPRESSION + ")Z"), 0);
+            int depth = code.stack() - 1;
+            code.jump(IFEQ, otherwiseLabel, -1);
+            emit(then, tail);
+            if (tail) {
+                code.mark(otherwiseLabel);
+                code.resetStack(depth);
+                emit(otherwise, true);
+            } else {
+                var end = new Bytecode.Label();
+                code.jump(GOTO, end, 0);
+                code.mark(otherwiseLabel);
+                code.resetStack(depth);
+                emit(otherwise, false);
+                code.mark(end);
+            }
+        }
+
+        private void application(Application application, boolean tail) {
+            var procedure = application.procedure();
+            var arguments = application.arguments();
+
+            if (procedure instanceof GlobalReference(var variable, var _, var _)
+                && arguments.size() == 2 && BINARY_OPERATIONS.containsKey(variable)) {
+                emit(procedure, false);
+                emit(arguments.get(0), false);
+                emit(arguments.get(1), false);
+                constant(application.source());
+                code.op(INVOKESTATIC, classFile.methodRef(COMPILED_PROCEDURE,
+                    BINARY_OPERATIONS.get(variable), BINARY_OPERATION), -3);
+                returnIf(tail);
+                return;
+            }
+
+            if (tail && procedure instanceof GlobalReference(var variable, var _, var _)
+                && variable.equals(name) && arguments.size() == arity) {
+                selfTailCall(application);
+                return;
+            }
+
+            emit(procedure, false);
+            call(application, tail);
+        }
+
+        /**
+         * If the procedure being called is still this one, evaluate the arguments into the
+         * local variables and jump to the start. Otherwise make an ordinary tail call.
+         */
+        private void selfTailCall(Application application) {
+            var otherProcedure = new Bytecode.Label();
+            emit(application.procedure(), false);
+            code.astore(temporary);
+            code.aload(temporary);
+            code.aload(THIS);
+            int depth = code.stack() - 2;
+            code.jump(IF_ACMPNE, otherProcedure, -2);
+            for (var argument : application.arguments()) {
+                emit(argument, false);
+            }
+            for (int i = arity - 1; i >= 0; i--) {
+                code.astore(FIRST_PARAMETER + i);
+            }
+            code.jump(GOTO, start, 0);
+
+            code.mark(otherProcedure);
+            code.resetStack(depth);
+            code.aload(temporary);
+            call(application, true);
+        }
+
+        /**
+         * Call the procedure on top of the stack with the arguments of the application.
+         */
+        private void call(Application application, boolean tail) {
+            var arguments = application.arguments();
+            code.iconst(arguments.size());
+            code.op(ANEWARRAY, classFile.classRef(LISP_EXPRESSION), 0);
+            for (int i = 0; i < arguments.size(); i++) {
+                code.op(DUP, 1);
+                code.iconst(i);
+                emit(arguments.get(i), false);
+                code.op(AASTORE, -3);
+            }
+            constant(application.source());
+            code.op(INVOKESTATIC,
+                classFile.methodRef(COMPILED_PROCEDURE, tail ? "tailCall" : "call", CALL), -2);
+            returnIf(tail);
+        }
+
+        private void global(String variable, int depth, InlineCache cache) {
+            if (depth != 1) {
+                throw new NotCompilable("Variable of an enclosing procedure: " + variable);
+            }
+            if (caches.size() > Short.MAX_VALUE) {
+                throw new NotCompilable("Too many variables");
+            }
+            code.aload(THIS);
+            code.op(GETFIELD,
+                classFile.fieldRef(COMPILED_PROCEDURE, "caches", "[" + INLINE_CACHE), 0);
+            code.iconst(caches.size());
+            code.op(AALOAD, -1);
+            caches.add(cache);
+            code.aload(THIS);
+            code.op(GETFIELD,
+                classFile.fieldRef(COMPILED_PROCEDURE, "environment", ENVIRONMENT), 0);
+            code.ldc(classFile.string(variable));
+            code.op(INVOKESTATIC, classFile.methodRef(COMPILED_PROCEDURE, "global",
+                "(" + INLINE_CACHE + ENVIRONMENT + "Ljava/lang/String;)" + EXPRESSION), -2);
+        }
+
+        private void constant(LispExpression value) {
+            if (constants.size() > Short.MAX_VALUE) {
+                throw new NotCompilable("Too many constants");
+            }
+            code.aload(THIS);
+            code.op(GETFIELD,
+                classFile.fieldRef(COMPILED_PROCEDURE, "constants", "[" + EXPRESSION), 0);
+            code.iconst(constants.size());
+            code.op(AALOAD, -1);
+            constants.add(value);
+        }
+
+        private void returnIf(boolean tail) {
+            if (tail) {
+                code.op(ARETURN, -1);
+            }
+        }
+    }
+}
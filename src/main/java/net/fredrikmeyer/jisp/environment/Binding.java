@@ -0,0 +1,112 @@
+package net.fredrikmeyer.jisp.environment;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.fredrikmeyer.jisp.LispExpression;
+
+/**
+ * The cell holding the value of a variable in a {@link StandardEnvironment} or the
+ * {@link BuiltInEnvironment}. Setting a variable that is already defined changes the value in its
+ * cell, so whoever holds on to the cell sees the new value without looking the variable up again.
+ * <p>
+ * A cell found by looking a name up stays the right one until the same name is defined in an
+ * environment where it was not before, which may shadow the cell. Every such definition moves the
+ * {@link #generation(String) generation} of that name on, so a kept cell is known to be current
+ * as long as the generation of its name is the same as when it was looked up. Defining other
+ * names does not affect it.
+ * <p>
+ * The generations are held weakly, by those keeping cells, so a name stops taking up room once
+ * no one keeps a cell for it. A long-running process making up new names does not fill up with
+ * their generations.
+ */
+public final class Binding {
+
+    /**
+     * The generations of the names someone still holds on to. A name not in it has no kept
+     * cells to invalidate.
+     */
+    private static final Map<String, Generation> GENERATIONS = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<AtomicInteger> COLLECTED = new ReferenceQueue<>();
+
+    private volatile LispExpression value;
+
+    Binding(LispExpression value) {
+        this.value = value;
+    }
+
+    public LispExpression value() {
+        return value;
+    }
+
+    void set(LispExpression value) {
+        this.value = value;
+    }
+
+    /**
+     * The generation of the name. It is looked up once and then kept, to be read again as often
+     * as needed. Once no one keeps it, it may be forgotten.
+     */
+    public static AtomicInteger generation(String name) {
+        removeCollected();
+        while (true) {
+            Generation reference = GENERATIONS.get(name);
+            AtomicInteger generation = reference != null ? reference.get() : null;
+            if (generation != null) {
+                return generation;
+            }
+            generation = new AtomicInteger();
+            Generation fresh = new Generation(name, generation);
+            if (reference == null
+                ? GENERATIONS.putIfAbsent(name, fresh) == null
+                : GENERATIONS.replace(name, reference, fresh)) {
+                return generation;
+            }
+        }
+    }
+
+    /**
+     * A variable was defined where it was not before.
+     */
+    static void added(String name) {
+        Generation reference = GENERATIONS.get(name);
+        AtomicInteger generation = reference != null ? reference.get() : null;
+        if (generation != null) {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * The number of names with a generation, including any that have been collected but not
+     * removed yet.
+     */
+    static int generations() {
+        removeCollected();
+        return GENERATIONS.size();
+    }
+
+    private static void removeCollected() {
+        Object reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            Generation generation = (Generation) reference;
+            GENERATIONS.remove(generation.name, generation);
+        }
+    }
+
+    private static final class Generation extends WeakReference<AtomicInteger> {
+
+        private final String name;
+
+        Generation(String name, AtomicInteger generation) {
+            super(generation, COLLECTED);
+            this.name = name;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,414 @@
+package net.fredrikmeyer.jisp.environment;
+
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import net.fredrikmeyer.jisp.Arithmetic;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispList;
+import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.LispNumber;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.HigherOrderProcedure;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+
+/**
+ * The built-in procedures. There is only one instance, and it can not be modified, so it is
+ * shared as the outermost parent of every {@link StandardEnvironment}. Defining a built-in name
+ * in a child environment shadows it there instead.
+ */
+public final class BuiltInEnvironment implements Environment {
+
+    private static final BuiltInEnvironment INSTANCE = new BuiltInEnvironment();
+
+    private final Map<String, LispExpression> env = builtIns();
+    private final Map<String, Binding> bindings = new HashMap<>();
+
+    private BuiltInEnvironment() {
+        env.forEach((name, value) -> bindings.put(name, new Binding(value)));
+    }
+
+    public static BuiltInEnvironment getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public LispExpression lookUpVariable(String name) {
+        return env.get(name);
+    }
+
+    @Override
+    public void setVariable(String name, LispExpression value) {
+        throw new UnsupportedOperationException("Cannot redefine built-in: " + name);
+    }
+
+    @Override
+    public Environment extendEnvironment(Map<String, LispExpression> bindings) {
+        return StandardEnvironment.extend(this, bindings);
+    }
+
+    @Override
+    public Environment extendEnvironment(List<String> names, LispExpression[] values) {
+        return StandardEnvironment.extend(this, names, values);
+    }
+
+    @Override
+    public Binding binding(String name) {
+        return bindings.get(name);
+    }
+
+    @Override
+    public String toString() {
+        return "BuiltInEnvironment{" + new TreeMap<>(env).keySet() + '}';
+    }
+
+    private static Map<String, LispExpression> builtIns() {
+        Map<String, LispExpression> builtIns = new HashMap<>();
+
+        builtIns.put("+", new BuiltInProcedure("+") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                switch (values.length) {
+                    case 1 -> {
+                        return number(values, 0);
+                    }
+                    case 2 -> {
+                        return Arithmetic.add(number(values, 0), number(values, 1));
+                    }
+                    default -> {
+                        LispNumber sum = IntegerLiteral.of(0);
+                        for (int i = 0; i < values.length; i++) {
+                            sum = Arithmetic.add(sum, number(values, i));
+                        }
+                        return sum;
+                    }
+                }
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                if (a instanceof LispNumber x && b instanceof LispNumber y) {
+                    return Arithmetic.add(x, y);
+                }
+                return apply(a, b);
+            }
+        });
+
+        builtIns.put("-", new BuiltInProcedure("-") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                switch (values.length) {
+                    case 1 -> {
+                        return number(values, 0);
+                    }
+                    case 2 -> {
+                        return Arithmetic.subtract(number(values, 0), number(values, 1));
+                    }
+                    default -> {
+                        LispNumber difference = number(values, 0);
+                        for (int i = 1; i < values.length; i++) {
+                            difference = Arithmetic.subtract(difference, number(values, i));
+                        }
+                        return difference;
+                    }
+                }
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                if (a instanceof LispNumber x && b instanceof LispNumber y) {
+                    return Arithmetic.subtract(x, y);
+                }
+                return apply(a, b);
+            }
+        });
+
+        builtIns.put("*", new BuiltInProcedure("*") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                switch (values.length) {
+                    case 1 -> {
+                        return number(values, 0);
+                    }
+                    case 2 -> {
+                        return Arithmetic.multiply(number(values, 0), number(values, 1));
+                    }
+                    default -> {
+                        LispNumber product = IntegerLiteral.of(1);
+                        for (int i = 0; i < values.length; i++) {
+                            product = Arithmetic.multiply(product, number(values, i));
+                        }
+                        return product;
+                    }
+                }
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                if (a instanceof LispNumber x && b instanceof LispNumber y) {
+                    return Arithmetic.multiply(x, y);
+                }
+                return apply(a, b);
+            }
+        });
+
+        builtIns.put("=", new BuiltInProcedure("=") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                if (values.length == 2) {
+                    return BoolValue.of(same(values[0], values[1]));
+                }
+                for (int i = 1; i < values.length; i++) {
+                    if (!same(values[0], values[i])) {
+                        return BoolValue.FALSE;
+                    }
+                }
+                return BoolValue.TRUE;
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                return BoolValue.of(same(a, b));
+            }
+
+            private static boolean same(LispExpression a, LispExpression b) {
+                if (a instanceof LispNumber x && b instanceof LispNumber y) {
+                    return Arithmetic.numericEquals(x, y);
+                }
+                // Equal data read through the same InternTable is also identical.
+                return a == b || a.equals(b);
+            }
+        });
+
+        builtIns.put("<", new BuiltInProcedure("<") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                if (values.length == 2) {
+                    return BoolValue.of(Arithmetic.lessThan(number(values, 0), number(values, 1)));
+                }
+                // true if values are strictly increasing
+                for (int i = 1; i < values.length; i++) {
+                    if (!Arithmetic.lessThan(number(values, i - 1), number(values, i))) {
+                        return BoolValue.FALSE;
+                    }
+                }
+                return BoolValue.TRUE;
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                if (a instanceof LispNumber x && b instanceof LispNumber y) {
+                    return BoolValue.of(Arithmetic.lessThan(x, y));
+                }
+                return apply(a, b);
+            }
+        });
+
+        builtIns.put("list", new BuiltInProcedure("list") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                return new LispList(List.of(values));
+            }
+        });
+
+        builtIns.put("cons", new BuiltInProcedure("cons") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                if (values.length != 2) {
+                    throw new RuntimeException("cons requires exactly 2 arguments");
+                }
+                if (!(values[1] instanceof LispList list)) {
+                    throw new RuntimeException("Second argument to cons must be a list");
+                }
+                return LispList.cons(values[0], list);
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                if (b instanceof LispList list) {
+                    return LispList.cons(a, list);
+                }
+                return apply(a, b);
+            }
+        });
+
+        builtIns.put("car", new BuiltInProcedure("car") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                return nonEmptyList("car", values).car();
+            }
+
+            @Override
+            public LispExpression apply1(LispExpression a) {
+                if (a instanceof LispList list && !list.isEmpty()) {
+                    return list.car();
+                }
+                return apply(a);
+            }
+        });
+
+        builtIns.put("cdr", new BuiltInProcedure("cdr") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                return nonEmptyList("cdr", values).cdr();
+            }
+
+            @Override
+            public LispExpression apply1(LispExpression a) {
+                if (a instanceof LispList list && !list.isEmpty()) {
+                    return list.cdr();
+                }
+                return apply(a);
+            }
+        });
+
+        builtIns.put("null?", new BuiltInProcedure("null?") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                if (values.length != 1) {
+                    throw new RuntimeException("null? requires exactly 1 argument");
+                }
+                return BoolValue.of(values[0] instanceof LispList list && list.isEmpty());
+            }
+
+            @Override
+            public LispExpression apply1(LispExpression a) {
+                return BoolValue.of(a instanceof LispList list && list.isEmpty());
+            }
+        });
+
+        builtIns.put("abs", new BuiltInProcedure("abs") {
+
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                assert values.length == 1;
+
+                if (Objects.requireNonNull(values[0]) instanceof LispNumber value) {
+                    return Arithmetic.abs(value);
+                }
+                throw new IllegalStateException("Unexpected value: " + values[0]);
+            }
+
+            @Override
+            public LispExpression apply1(LispExpression a) {
+                if (a instanceof LispNumber value) {
+                    return Arithmetic.abs(value);
+                }
+                return apply(a);
+            }
+        });
+
+        builtIns.put("/", new BuiltInProcedure("/") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                return Arithmetic.divide(number(values, 0), number(values, 1));
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                if (a instanceof LispNumber x && b instanceof LispNumber y) {
+                    return Arithmetic.divide(x, y);
+                }
+                return apply(a, b);
+            }
+        });
+
+        builtIns.put("%", new BuiltInProcedure("%") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                if (values.length != 2) {
+                    throw new RuntimeException("Modulo operation requires exactly 2 arguments");
+                }
+                if (!(values[0] instanceof LispNumber dividend
+                      && values[1] instanceof LispNumber divisor)) {
+                    throw new RuntimeException("Modulo operation requires numeric arguments");
+                }
+                if (Arithmetic.isZero(divisor)) {
+                    throw new RuntimeException("Modulo by zero is undefined");
+                }
+                return Arithmetic.remainder(dividend, divisor);
+            }
+        });
+
+        builtIns.put("map", new HigherOrderProcedure("map") {
+            @Override
+            public LispExpression apply(EvalApply evalApply, LispExpression... values) {
+                if (values.length != 2) {
+                    throw new RuntimeException("map requires exactly 2 arguments: a procedure and a list");
+                }
+
+                if (!(values[0] instanceof Procedure proc)) {
+                    throw new RuntimeException("First argument to map must be a procedure");
+                }
+
+                if (!(values[1] instanceof LispList list)) {
+                    throw new RuntimeException("Second argument to map must be a list");
+                }
+
+                List<LispExpression> mappedElements = list.elements().stream()
+                    .map(element -> evalApply.apply(proc, List.of(element)))
+                    .toList();
+
+                return new LispList(mappedElements);
+            }
+        });
+
+        builtIns.put("filter", new HigherOrderProcedure("filter") {
+            @Override
+            public LispExpression apply(EvalApply evalApply, LispExpression... values) {
+                if (values.length != 2) {
+                    throw new RuntimeException("filter requires exactly 2 arguments: a predicate and a list");
+                }
+
+                if (!(values[0] instanceof Procedure proc)) {
+                    throw new RuntimeException("First argument to filter must be a procedure");
+                }
+
+                if (!(values[1] instanceof LispList list)) {
+                    throw new RuntimeException("Second argument to filter must be a list");
+                }
+
+                List<LispExpression> filteredElements = list.elements().stream()
+                    .filter(element ->
+                        StandardEvalApply.isTrueIsh(evalApply.apply(proc, List.of(element))))
+                    .toList();
+
+                return new LispList(filteredElements);
+            }
+        });
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        builtIns.put("pmap", ParallelProcedures.map(pool, ParallelProcedures.DEFAULT_THRESHOLD));
+        builtIns.put("pfilter",
+            ParallelProcedures.filter(pool, ParallelProcedures.DEFAULT_THRESHOLD));
+        builtIns.put("memoize", MemoizedProcedure.memoize());
+
+        return Map.copyOf(builtIns);
+    }
+
+    private static LispList nonEmptyList(String procedure, LispExpression[] values) {
+        if (values.length != 1) {
+            throw new RuntimeException(procedure + " requires exactly 1 argument");
+        }
+        if (!(values[0] instanceof LispList list) || list.isEmpty()) {
+            throw new RuntimeException(
+                "Argument to " + procedure + " must be a non-empty list, got: " + values[0]);
+        }
+        return list;
+    }
+
+    private static LispNumber number(LispExpression[] values, int index) {
+        if (values[index] instanceof LispNumber number) {
+            return number;
+        }
+        throw new RuntimeException("Not all values are numbers: " + Arrays.toString(values));
+    }
+}
@@ -1,5 +1,7 @@
 package net.fredrikmeyer.jisp.environment;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import net.fredrikmeyer.jisp.LispExpression;
 
@@ -7,4 +9,27 @@ public interface Environment {
     LispExpression lookUpVariable(String name);
     void setVariable(String name, LispExpression value);
     Environment extendEnvironment(Map<String, LispExpression> bindings);
+
+    /**
+     * Bind each value to the name at the same position, as a procedure call does with its
+     * arguments.
+     */
+    default Environment extendEnvironment(List<String> names, LispExpression[] values) {
+        Map<String, LispExpression> bindings = HashMap.newHashMap(values.length);
+        for (int i = 0; i < values.length; i++) {
+            if (bindings.put(names.get(i), values[i]) != null) {
+                throw new IllegalArgumentException("Duplicate argument: " + names.get(i));
+            }
+        }
+        return extendEnvironment(bindings);
+    }
+
+    /**
+     * The cell holding the variable, for callers that keep it to read the variable again
+     * without looking it up, see {@link Binding}. Null if the variable is not defined, or is not
+     * held in a cell.
+     */
+    default Binding binding(String name) {
+        return null;
+    }
 }
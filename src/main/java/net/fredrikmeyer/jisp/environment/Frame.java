@@ -0,0 +1,94 @@
+package net.fredrikmeyer.jisp.environment;
+
+import java.util.List;
+import java.util.Map;
+import net.fredrikmeyer.jisp.LispExpression;
+
+/**
+ * The environment of one call to an analyzed procedure. Variables live in a fixed array of slots
+ * whose layout was decided when the procedure was analyzed, so the evaluator reads and writes
+ * them by index. Lookup by name is still supported, for anything that only knows about the
+ * {@link Environment} interface.
+ */
+public class Frame implements Environment {
+
+    private final List<String> variables;
+    private final LispExpression[] slots;
+    private final Environment parent;
+
+    /**
+     * @param variables the name of each slot
+     * @param slots     the values, one per variable. Unassigned slots are null.
+     * @param parent    the environment the procedure was created in
+     */
+    public Frame(List<String> variables, LispExpression[] slots, Environment parent) {
+        assert variables.size() == slots.length;
+        this.variables = variables;
+        this.slots = slots;
+        this.parent = parent;
+    }
+
+    public LispExpression get(int index) {
+        return slots[index];
+    }
+
+    public void set(int index, LispExpression value) {
+        slots[index] = value;
+    }
+
+    public Environment parent() {
+        return parent;
+    }
+
+    @Override
+    public LispExpression lookUpVariable(String name) {
+        int index = variables.indexOf(name);
+        if (index >= 0 && slots[index] != null) {
+            return slots[index];
+        }
+        return parent.lookUpVariable(name);
+    }
+
+    @Override
+    public void setVariable(String name, LispExpression value) {
+        int index = variables.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("No slot for variable: " + name);
+        }
+        slots[index] = value;
+    }
+
+    /**
+     * Variables of the frame live in its slots, not in cells, so only variables found further
+     * out have a binding.
+     */
+    @Override
+    public Binding binding(String name) {
+        return variables.contains(name) ? null : parent.binding(name);
+    }
+
+    @Override
+    public Environment extendEnvironment(Map<String, LispExpression> bindings) {
+        return StandardEnvironment.extend(this, bindings);
+    }
+
+    @Override
+    public Environment extendEnvironment(List<String> names, LispExpression[] values) {
+        return StandardEnvironment.extend(this, names, values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder env = new StringBuilder();
+        for (int i = 0; i < slots.length; i++) {
+            if (!env.isEmpty()) {
+                env.append(", ");
+            }
+            env.append(variables.get(i)).append('=').append(slots[i]);
+        }
+        return "Frame{" +
+               "env={" + env + '}' +
+               ", parent=" + parent +
+               '}';
+    }
+}
@@ -0,0 +1,183 @@
+package net.fredrikmeyer.jisp.environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.evaluator.Analyzer;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+
+/**
+ * A procedure remembering what it returned for the arguments it was called with, so a call with
+ * arguments equal to an earlier one returns the same value without calling the procedure again.
+ * Made by the {@code memoize} built-in: {@code (memoize f)}, or {@code (memoize f capacity)} to
+ * keep more or fewer results than {@link #DEFAULT_CAPACITY}. {@code (defn-memo f (x) body)} is
+ * short for {@code (define f (memoize (lambda (x) body)))}, with this built-in even if
+ * {@code memoize} has been redefined.
+ * <p>
+ * Arguments are compared with {@code equals}, so lists and literals are equal by value. A
+ * procedure passed as an argument is compared by identity instead, so it is not hashed through
+ * its environment and body on every call. When full, the result of the least recently used arguments is
+ * evicted. Only procedures whose result depends on nothing but their arguments should be
+ * memoized.
+ * <p>
+ * Safe to call from several threads. The procedure is called outside the lock, so a recursive
+ * procedure calling itself through its memoized name does not hold up other threads, and two
+ * threads may both compute the result for the same arguments.
+ */
+public final class MemoizedProcedure extends BuiltInProcedure {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Calls the memoized procedure. Analyzing code keeps no state, so it can be shared between
+     * threads.
+     */
+    private static final AnalyzingEvalApply INTERPRETER = new AnalyzingEvalApply();
+
+    private final Procedure procedure;
+    private final int capacity;
+    private final Map<List<Object>, LispExpression> results;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity the number of results to keep; 0 turns the cache off
+     */
+    public MemoizedProcedure(Procedure procedure, int capacity) {
+        super("memoized");
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        // Analyze a procedure made by the standard evaluator once, rather than on every call.
+        this.procedure = procedure instanceof UserProcedure userProcedure
+            ? new AnalyzedProcedure(userProcedure.environment(),
+            new Analyzer().analyzeProcedure(userProcedure))
+            : procedure;
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<List<Object>, LispExpression> eldest) {
+                return size() > MemoizedProcedure.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * The {@code memoize} built-in.
+     */
+    public static BuiltInProcedure memoize() {
+        return new BuiltInProcedure("memoize") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                if (values.length != 1 && values.length != 2) {
+                    throw new RuntimeException(
+                        "memoize requires a procedure and optionally a capacity");
+                }
+                if (!(values[0] instanceof Procedure procedure)) {
+                    throw new RuntimeException("First argument to memoize must be a procedure");
+                }
+                if (values.length == 1) {
+                    return new MemoizedProcedure(procedure, DEFAULT_CAPACITY);
+                }
+                if (!(values[1] instanceof IntegerLiteral(long capacity))
+                    || capacity < 0 || capacity > Integer.MAX_VALUE) {
+                    throw new RuntimeException(
+                        "Second argument to memoize must be a non-negative integer, got: "
+                        + values[1]);
+                }
+                return new MemoizedProcedure(procedure, (int) capacity);
+            }
+        };
+    }
+
+    @Override
+    public LispExpression apply(LispExpression... values) {
+        return call(List.of(values));
+    }
+
+    @Override
+    public LispExpression apply1(LispExpression a) {
+        return call(List.of(a));
+    }
+
+    @Override
+    public LispExpression apply2(LispExpression a, LispExpression b) {
+        return call(List.of(a, b));
+    }
+
+    private LispExpression call(List<LispExpression> arguments) {
+        List<Object> key = key(arguments);
+        synchronized (this) {
+            LispExpression result = results.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+            misses++;
+        }
+        LispExpression result = INTERPRETER.apply(procedure, arguments);
+        synchronized (this) {
+            results.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * The arguments, with any procedure among them wrapped to be compared by identity.
+     */
+    private static List<Object> key(List<LispExpression> arguments) {
+        List<Object> key = null;
+        for (int i = 0; i < arguments.size(); i++) {
+            if (arguments.get(i) instanceof Procedure procedure) {
+                if (key == null) {
+                    key = new ArrayList<>(arguments);
+                }
+                key.set(i, new Identity(procedure));
+            }
+        }
+        return key == null ? List.copyOf(arguments) : key;
+    }
+
+    private record Identity(Procedure procedure) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identity other && other.procedure == procedure;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(procedure);
+        }
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MemoizedProcedure[size=" + results.size() + ", capacity=" + capacity + ", hits="
+               + hits + ", misses=" + misses + "]";
+    }
+}
@@ -0,0 +1,144 @@
+package net.fredrikmeyer.jisp.environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispList;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.HigherOrderProcedure;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+
+/**
+ * {@code pmap} and {@code pfilter}: {@code map} and {@code filter} calling the procedure on the
+ * elements of the list in parallel, on a {@link ForkJoinPool}. The list is split into slices,
+ * about four per worker, and the results keep the order of the list.
+ * <p>
+ * The procedure is called by the evaluator calling {@code pmap} or {@code pfilter}, shared by
+ * all the slices, so hot procedures are found across the whole list. Every call binds its argument in a new frame, so the calls only share
+ * the environment the procedure was defined in. Globals may be defined and set from the calls,
+ * since a top-level {@link StandardEnvironment} is thread-safe, but the variables of an enclosing
+ * procedure call should not be set.
+ */
+public final class ParallelProcedures {
+
+    /**
+     * Lists shorter than this are mapped sequentially, in the calling thread.
+     */
+    public static final int DEFAULT_THRESHOLD = 16;
+
+    private ParallelProcedures() {
+    }
+
+    public static BuiltInProcedure map(ForkJoinPool pool, int threshold) {
+        return new HigherOrderProcedure("pmap") {
+            @Override
+            public LispExpression apply(EvalApply evalApply, LispExpression... values) {
+                LispExpression[] elements = elements("pmap", values);
+                return new LispList(List.of(
+                    applyToAll(evalApply, (Procedure) values[0], elements, pool, threshold)));
+            }
+        };
+    }
+
+    public static BuiltInProcedure filter(ForkJoinPool pool, int threshold) {
+        return new HigherOrderProcedure("pfilter") {
+            @Override
+            public LispExpression apply(EvalApply evalApply, LispExpression... values) {
+                LispExpression[] elements = elements("pfilter", values);
+                LispExpression[] results =
+                    applyToAll(evalApply, (Procedure) values[0], elements, pool, threshold);
+
+                List<LispExpression> kept = new ArrayList<>();
+                for (int i = 0; i < results.length; i++) {
+                    if (StandardEvalApply.isTrueIsh(results[i])) {
+                        kept.add(elements[i]);
+                    }
+                }
+                return new LispList(kept);
+            }
+        };
+    }
+
+    /**
+     * The elements of the list the procedure is to be applied to, after checking the arguments.
+     * The list is made of cons cells, so it is copied to an array once, to be indexed.
+     */
+    private static LispExpression[] elements(String name, LispExpression[] values) {
+        if (values.length != 2) {
+            throw new RuntimeException(
+                name + " requires exactly 2 arguments: a procedure and a list");
+        }
+        if (!(values[0] instanceof Procedure)) {
+            throw new RuntimeException("First argument to " + name + " must be a procedure");
+        }
+        if (!(values[1] instanceof LispList list)) {
+            throw new RuntimeException("Second argument to " + name + " must be a list");
+        }
+
+        return list.elements().toArray(LispExpression[]::new);
+    }
+
+    /**
+     * The procedure applied to each of the elements, in order.
+     */
+    private static LispExpression[] applyToAll(EvalApply evalApply, Procedure procedure,
+                                               LispExpression[] elements, ForkJoinPool pool,
+                                               int threshold) {
+        LispExpression[] results = new LispExpression[elements.length];
+        if (elements.length < threshold) {
+            new Slice(evalApply, procedure, elements, results, 0, elements.length,
+                elements.length).compute();
+        } else {
+            int sliceSize = Math.max(1, elements.length / (4 * pool.getParallelism()));
+            pool.invoke(new Slice(evalApply, procedure, elements, results, 0, elements.length,
+                sliceSize));
+        }
+        return results;
+    }
+
+    /**
+     * Applies the procedure to the elements from {@code from} up to {@code to}, splitting in two
+     * until there are at most {@code sliceSize} of them.
+     * It is never serialized, although a {@link RecursiveAction} is serializable.
+     */
+    @SuppressWarnings("serial")
+    private static final class Slice extends RecursiveAction {
+
+        private final EvalApply evalApply;
+        private final Procedure procedure;
+        private final LispExpression[] elements;
+        private final LispExpression[] results;
+        private final int from;
+        private final int to;
+        private final int sliceSize;
+
+        Slice(EvalApply evalApply, Procedure procedure, LispExpression[] elements,
+              LispExpression[] results, int from, int to, int sliceSize) {
+            this.evalApply = evalApply;
+            this.procedure = procedure;
+            this.elements = elements;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.sliceSize = sliceSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > sliceSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                    new Slice(evalApply, procedure, elements, results, from, middle, sliceSize),
+                    new Slice(evalApply, procedure, elements, results, middle, to, sliceSize));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                results[i] = evalApply.apply(procedure, List.of(elements[i]));
+            }
+        }
+    }
+}
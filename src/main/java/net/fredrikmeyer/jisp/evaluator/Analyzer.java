@@ -0,0 +1,161 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
+import net.fredrikmeyer.jisp.evaluator.Node.Application;
+import net.fredrikmeyer.jisp.evaluator.Node.Conditional;
+import net.fredrikmeyer.jisp.evaluator.Node.Constant;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalAssignment;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalDefinition;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalReference;
+import net.fredrikmeyer.jisp.evaluator.Node.Lambda;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalAssignment;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalDefinition;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalReference;
+import net.fredrikmeyer.jisp.evaluator.Node.Sequence;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Assignment;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.FunctionApplication;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Quotation;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.SelfEvaluating;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Set;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Variable;
+
+/**
+ * Turns a {@link LispExpression} into a tree of {@link Node}s. The syntax of every sub-expression
+ * is inspected exactly once, so the bodies of lambdas are not re-classified each time they are
+ * called.
+ * <p>
+ * Variables bound by a lambda (its arguments and anything defined in its body) are resolved to a
+ * frame depth and slot index, so they can be read straight out of a
+ * {@link net.fredrikmeyer.jisp.environment.Frame} at runtime. Any other variable is looked up by
+ * name in the environment the expression is evaluated in.
+ */
+public class Analyzer {
+
+    public Node analyze(LispExpression expression) {
+        return analyze(expression, null);
+    }
+
+    /**
+     * Analyze the lambda a {@link UserProcedure} was made from, as if it had been written at the
+     * top level.
+     */
+    public Lambda analyzeProcedure(UserProcedure procedure) {
+        return lambda(procedure.arguments().stream().map(LispSymbol::of).toList(),
+            procedure.body(), null);
+    }
+
+    private Node analyze(LispExpression expression, Scope scope) {
+        Objects.requireNonNull(expression);
+
+        return switch (SyntacticFormParser.parse(expression)) {
+            case SelfEvaluating(var literal) -> new Constant(literal);
+            case Variable(var symbol) -> reference(symbol.name(), scope);
+            case Quotation(var quoted) -> new Constant(quoted);
+            case Assignment(var symbol, var value) -> {
+                var name = symbol.name();
+                if (scope == null) {
+                    yield new GlobalDefinition(name, analyze(value, null));
+                }
+                int index = scope.define(name);
+                yield new LocalDefinition(name, index, analyze(value, scope));
+            }
+            case Set(var symbol, var value) -> assignment(symbol.name(), analyze(value, scope),
+                scope);
+            case SyntacticForm.Conditional(var condition, var then, var otherwise) ->
+                new Conditional(analyze(condition, scope), analyze(then, scope),
+                    analyze(otherwise, scope));
+            case SyntacticForm.Sequence(var forms) -> new Sequence(analyzeAll(forms, scope));
+            case SyntacticForm.Lambda(var arguments, var body) -> lambda(arguments, body, scope);
+            case FunctionApplication(var procedure, var arguments) ->
+                new Application(analyze(procedure, scope), analyzeAll(arguments, scope),
+                    expression);
+        };
+    }
+
+    private Lambda lambda(List<LispSymbol> arguments, LispExpression body, Scope parent) {
+        var names = arguments.stream().map(LispSymbol::name).toList();
+        var scope = new Scope(parent);
+        for (var name : names) {
+            if (scope.indexOf(name) >= 0) {
+                throw new IllegalArgumentException("Duplicate argument: " + name);
+            }
+            scope.define(name);
+        }
+        // Give the body's own definitions a slot up front, so that references to them are
+        // resolved to the frame even if they are analyzed before the define itself.
+        defineInternalDefinitions(body, scope);
+
+        var code = analyze(body, scope);
+
+        return new Lambda(names, List.copyOf(scope.variables), body, code);
+    }
+
+    private void defineInternalDefinitions(LispExpression body, Scope scope) {
+        switch (SyntacticFormParser.parse(body)) {
+            case Assignment(var symbol, var _) -> scope.define(symbol.name());
+            case SyntacticForm.Sequence(var forms) -> {
+                for (var form : forms) {
+                    defineInternalDefinitions(form, scope);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static Node reference(String name, Scope scope) {
+        int depth = 0;
+        for (var s = scope; s != null; s = s.parent, depth++) {
+            int index = s.indexOf(name);
+            if (index >= 0) {
+                return new LocalReference(name, depth, index);
+            }
+        }
+        return new GlobalReference(name, depth);
+    }
+
+    private static Node assignment(String name, Node value, Scope scope) {
+        return switch (reference(name, scope)) {
+            case LocalReference(var _, var depth, var index) ->
+                new LocalAssignment(name, depth, index, value);
+            case GlobalReference(var _, var depth, var _) ->
+                new GlobalAssignment(name, depth, value);
+            default -> throw new IllegalStateException("Unexpected reference to " + name);
+        };
+    }
+
+    private List<Node> analyzeAll(List<LispExpression> expressions, Scope scope) {
+        return expressions.stream().map(e -> analyze(e, scope)).toList();
+    }
+
+    /**
+     * The variables bound by one lambda while its body is being analyzed.
+     */
+    private static final class Scope {
+
+        private final List<String> variables = new ArrayList<>();
+        private final Scope parent;
+
+        Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        int indexOf(String name) {
+            return variables.indexOf(name);
+        }
+
+        int define(String name) {
+            int index = indexOf(name);
+            if (index >= 0) {
+                return index;
+            }
+            variables.add(name);
+            return variables.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import java.util.List;
+import java.util.Objects;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Nil;
+import net.fredrikmeyer.jisp.LispExpression.Ok;
+import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.Frame;
+import net.fredrikmeyer.jisp.evaluator.Node.Application;
+import net.fredrikmeyer.jisp.evaluator.Node.Conditional;
+import net.fredrikmeyer.jisp.evaluator.Node.Constant;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalAssignment;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalDefinition;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalReference;
+import net.fredrikmeyer.jisp.evaluator.Node.Lambda;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalAssignment;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalDefinition;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalReference;
+import net.fredrikmeyer.jisp.evaluator.Node.Sequence;
+
+/**
+ * An {@link EvalApply} that first analyzes an expression into a tree of {@link Node}s and then
+ * executes that tree. Lambdas evaluate to {@link AnalyzedProcedure}s carrying their analyzed body,
+ * so the syntax of a procedure body is only looked at once, however many times it is called.
+ * Calling one creates a {@link Frame} holding the arguments in an array.
+ */
+public class AnalyzingEvalApply implements EvalApply {
+
+    private final Analyzer analyzer = new Analyzer();
+
+    @Override
+    public LispExpression eval(LispExpression expression, Environment environment) {
+        Objects.requireNonNull(expression);
+
+        return execute(analyze(expression), environment);
+    }
+
+    /**
+     * Analyze an expression to be run with {@link #execute}. Variables outside of lambdas are
+     * looked up by name when the node runs, so the node can be kept and run again, in any
+     * environment.
+     */
+    public Node analyze(LispExpression expression) {
+        return analyzer.analyze(expression);
+    }
+
+    @Override
+    public LispExpression apply(Procedure procedure, List<LispExpression> arguments) {
+        return switch (procedure) {
+            case HigherOrderProcedure higherOrder ->
+                higherOrder.apply(this, arguments.toArray(LispExpression[]::new));
+            case BuiltInProcedure builtInProcedure -> builtInProcedure.applyTo(arguments);
+            case AnalyzedProcedure(Environment env, var lambda) ->
+                execute(lambda.code(), frame(lambda, arguments, env));
+            // Procedures created by another evaluator have not been analyzed yet.
+            case UserProcedure userProcedure -> {
+                var lambda = analyze(userProcedure);
+                yield execute(lambda.code(),
+                    frame(lambda, arguments, userProcedure.environment()));
+            }
+        };
+    }
+
+    /**
+     * Run an analyzed node in the given environment. Nodes in tail position (the branches of a
+     * conditional, the last form of a sequence and the body of a procedure) are run by going
+     * around the loop rather than by recursing, so tail calls use constant Java stack.
+     */
+    public LispExpression execute(Node node, Environment environment) {
+        while (true) {
+            switch (node) {
+                case Constant(var value) -> {
+                    return value;
+                }
+
+                case LocalReference(var _, var depth, var index) -> {
+                    LispExpression lispValue = frameAt(environment, depth).get(index);
+                    if (lispValue == null) {
+                        return new Nil();
+                    }
+                    return lispValue;
+                }
+
+                case GlobalReference(var name, var depth, var cache) -> {
+                    LispExpression lispValue = cache.lookUp(outside(environment, depth), name);
+                    if (lispValue == null) {
+                        return new Nil();
+                    }
+                    return lispValue;
+                }
+
+                case GlobalDefinition(var name, var value) -> {
+                    environment.setVariable(name, define(name, execute(value, environment)));
+
+                    return new Ok();
+                }
+
+                case LocalDefinition(var _, var index, var value) -> {
+                    ((Frame) environment).set(index, execute(value, environment));
+
+                    return new Ok();
+                }
+
+                case LocalAssignment(var _, var depth, var index, var value) -> {
+                    var frame = frameAt(environment, depth);
+                    if (frame.get(index) == null) {
+                        throw new RuntimeException("Cannot set! non-existing symbol.");
+                    }
+                    frame.set(index, execute(value, environment));
+
+                    return new Ok();
+                }
+
+                case GlobalAssignment(var name, var depth, var value) -> {
+                    var target = outside(environment, depth);
+                    if (target.lookUpVariable(name) == null) {
+                        throw new RuntimeException("Cannot set! non-existing symbol.");
+                    }
+                    target.setVariable(name, execute(value, environment));
+
+                    return new Ok();
+                }
+
+                case Conditional(var condition, var then, var otherwise) ->
+                    node = StandardEvalApply.isTrueIsh(execute(condition, environment))
+                           ? then : otherwise;
+
+                case Sequence(var forms) -> {
+                    for (int i = 0; i < forms.size() - 1; i++) {
+                        execute(forms.get(i), environment);
+                    }
+
+                    node = Objects.requireNonNull(forms.isEmpty() ? null : forms.getLast());
+                }
+
+                case Lambda lambda -> {
+                    return new AnalyzedProcedure(environment, lambda);
+                }
+
+                case Application(var procedure, var arguments, var source) -> {
+                    var evaluatedProcedure = execute(procedure, environment);
+
+                    if (!(evaluatedProcedure instanceof Procedure p)) {
+                        throw new RuntimeException(
+                            "Procedure expected, got: " + evaluatedProcedure + ". Expression: "
+                            + source);
+                    }
+
+                    switch (p) {
+                        case BuiltInProcedure builtInProcedure -> {
+                            return applyBuiltIn(builtInProcedure, arguments, environment);
+                        }
+                        case AnalyzedProcedure(Environment env, var lambda) -> {
+                            environment = frame(lambda, arguments, environment, env);
+                            node = lambda.code();
+                        }
+                        case UserProcedure userProcedure -> {
+                            var lambda = analyze(userProcedure);
+                            environment = frame(lambda, arguments, environment,
+                                userProcedure.environment());
+                            node = lambda.code();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Call a built-in with the arguments run straight into the method matching their number, so
+     * that calls with up to three arguments need no list or array.
+     */
+    private LispExpression applyBuiltIn(BuiltInProcedure procedure, List<Node> arguments,
+                                        Environment environment) {
+        if (procedure instanceof HigherOrderProcedure higherOrder) {
+            return higherOrder.apply(this, executeAll(arguments, environment));
+        }
+        return switch (arguments.size()) {
+            case 0 -> procedure.apply0();
+            case 1 -> procedure.apply1(execute(arguments.get(0), environment));
+            case 2 -> procedure.apply2(execute(arguments.get(0), environment),
+                execute(arguments.get(1), environment));
+            case 3 -> procedure.apply3(execute(arguments.get(0), environment),
+                execute(arguments.get(1), environment), execute(arguments.get(2), environment));
+            default -> procedure.apply(executeAll(arguments, environment));
+        };
+    }
+
+    private LispExpression[] executeAll(List<Node> arguments, Environment environment) {
+        var values = new LispExpression[arguments.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = execute(arguments.get(i), environment);
+        }
+        return values;
+    }
+
+    /**
+     * The analyzed code of a procedure created by another evaluator. It is analyzed on every
+     * call; subclasses may cache it.
+     */
+    protected Lambda analyze(UserProcedure procedure) {
+        return analyzer.analyzeProcedure(procedure);
+    }
+
+    /**
+     * The value to bind when {@code name} is defined at the top level. Subclasses may replace it,
+     * for example with a compiled version of a procedure.
+     */
+    protected LispExpression define(String name, LispExpression value) {
+        return value;
+    }
+
+    private static Frame frame(Lambda lambda, List<LispExpression> arguments,
+                               Environment parent) {
+        var slots = slots(lambda, arguments.size());
+        for (int i = 0; i < arguments.size(); i++) {
+            slots[i] = arguments.get(i);
+        }
+        return new Frame(lambda.variables(), slots, parent);
+    }
+
+    /**
+     * The frame of a call, with the arguments run in {@code environment} straight into its
+     * slots.
+     */
+    private Frame frame(Lambda lambda, List<Node> arguments, Environment environment,
+                        Environment parent) {
+        var slots = slots(lambda, arguments.size());
+        for (int i = 0; i < arguments.size(); i++) {
+            slots[i] = execute(arguments.get(i), environment);
+        }
+        return new Frame(lambda.variables(), slots, parent);
+    }
+
+    private static LispExpression[] slots(Lambda lambda, int argumentCount) {
+        int expected = lambda.arguments().size();
+        if (argumentCount > expected) {
+            throw new RuntimeException(
+                "Too many arguments. Expected " + expected + ", got " + argumentCount
+                + ". Procedure: " + lambda.body());
+        }
+        return new LispExpression[lambda.variables().size()];
+    }
+
+    private static Frame frameAt(Environment environment, int depth) {
+        return (Frame) outside(environment, depth);
+    }
+
+    /**
+     * Skip the innermost {@code depth} frames.
+     */
+    private static Environment outside(Environment environment, int depth) {
+        for (int i = 0; i < depth; i++) {
+            environment = ((Frame) environment).parent();
+        }
+        return environment;
+    }
+}
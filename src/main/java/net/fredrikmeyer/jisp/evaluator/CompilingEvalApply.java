@@ -0,0 +1,26 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
+import net.fredrikmeyer.jisp.compiler.Compiler;
+
+/**
+ * An {@link AnalyzingEvalApply} that compiles procedures to JVM bytecode when they are defined at
+ * the top level, as in {@code (define (f x) ...)}. Procedures the {@link Compiler} cannot handle
+ * are interpreted as before.
+ */
+public class CompilingEvalApply extends AnalyzingEvalApply {
+
+    private final Compiler compiler = new Compiler();
+
+    @Override
+    protected LispExpression define(String name, LispExpression value) {
+        if (value instanceof AnalyzedProcedure procedure) {
+            var compiled = compiler.compile(name, procedure);
+            if (compiled.isPresent()) {
+                return compiled.get();
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,26 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+
+/**
+ * A built-in calling procedures it is given, like {@code map}. The evaluator calling it passes
+ * itself along, so the procedures are called by that evaluator and share its state, such as the
+ * call counts of the {@link StandardEvalApply}. Called without an evaluator, for example from
+ * compiled code, it uses a shared {@link AnalyzingEvalApply}, which keeps no state.
+ */
+public abstract class HigherOrderProcedure extends BuiltInProcedure {
+
+    private static final AnalyzingEvalApply DEFAULT = new AnalyzingEvalApply();
+
+    public HigherOrderProcedure(String name) {
+        super(name);
+    }
+
+    public abstract LispExpression apply(EvalApply evalApply, LispExpression... values);
+
+    @Override
+    public final LispExpression apply(LispExpression... values) {
+        return apply(DEFAULT, values);
+    }
+}
@@ -0,0 +1,62 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.environment.Binding;
+import net.fredrikmeyer.jisp.environment.Environment;
+
+/**
+ * Remembers where a {@link Node.GlobalReference} found its variable, so that as long as its name
+ * has not been defined anywhere else, which could shadow it, reading the variable is reading the value of its
+ * {@link Binding} rather than looking it up through every environment on the way.
+ * <p>
+ * The cache holds one entry, for the environment the reference was last looked up from. A node
+ * may be run by several threads, so the entry is replaced as a whole, never changed.
+ * <p>
+ * A cache says nothing about what the node means, so any two caches are equal. Nodes are equal
+ * if they would do the same thing, whatever they have cached.
+ */
+public final class InlineCache {
+
+    private record Entry(Environment environment, Binding binding, AtomicInteger generation,
+                         int seen) {
+
+    }
+
+    private Entry entry;
+
+    /**
+     * The value of the variable in the environment, or null if it is not defined.
+     */
+    public LispExpression lookUp(Environment environment, String name) {
+        Entry cached = entry;
+        if (cached != null && cached.environment() == environment
+            && cached.generation().get() == cached.seen()) {
+            return cached.binding().value();
+        }
+
+        AtomicInteger generation = cached != null ? cached.generation() : Binding.generation(name);
+        int seen = generation.get();
+        Binding binding = environment.binding(name);
+        if (binding == null) {
+            return environment.lookUpVariable(name);
+        }
+        entry = new Entry(environment, binding, generation, seen);
+        return binding.value();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof InlineCache;
+    }
+
+    @Override
+    public int hashCode() {
+        return InlineCache.class.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "InlineCache";
+    }
+}
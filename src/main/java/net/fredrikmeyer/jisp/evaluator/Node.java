@@ -0,0 +1,76 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import java.util.List;
+import net.fredrikmeyer.jisp.LispExpression;
+
+/**
+ * An executable node produced by the {@link Analyzer}. Where a {@link SyntacticForm} is recomputed
+ * every time an expression is evaluated, a tree of nodes is built once and then run as many times
+ * as needed by the {@link AnalyzingEvalApply}.
+ */
+public sealed interface Node {
+
+    /// Literals and quoted forms: the value is known at analysis time.
+    record Constant(LispExpression value) implements Node {
+
+    }
+
+    /// A variable bound by an enclosing lambda, found `depth` frames up at position `index`.
+    record LocalReference(String name, int depth, int index) implements Node {
+
+    }
+
+    /// A variable not bound by any enclosing lambda. The first `depth` frames are skipped, and
+    /// the name is looked up in the environment the analyzed expression was evaluated in. Where
+    /// it was found is kept in the `cache`.
+    record GlobalReference(String name, int depth, InlineCache cache) implements Node {
+
+        public GlobalReference(String name, int depth) {
+            this(name, depth, new InlineCache());
+        }
+    }
+
+    /// (define a 2) outside of any lambda.
+    record GlobalDefinition(String name, Node value) implements Node {
+
+    }
+
+    /// (define a 2) inside a lambda body, where `a` has its own slot in the frame.
+    record LocalDefinition(String name, int index, Node value) implements Node {
+
+    }
+
+    /// (set! a 3) on a variable bound by an enclosing lambda.
+    record LocalAssignment(String name, int depth, int index, Node value) implements Node {
+
+    }
+
+    /// (set! a 3) on a variable not bound by any enclosing lambda.
+    record GlobalAssignment(String name, int depth, Node value) implements Node {
+
+    }
+
+    /// (if #t 1 2)
+    record Conditional(Node condition, Node then, Node otherwise) implements Node {
+
+    }
+
+    /// (begin (define a 2) (+ a 3))
+    record Sequence(List<Node> forms) implements Node {
+
+    }
+
+    /// (lambda (a b c) (+ a b c)). The body is analyzed once, when the lambda itself is analyzed.
+    /// A call gets a frame with one slot per variable: first the arguments, then any variables
+    /// defined in the body.
+    record Lambda(List<String> arguments, List<String> variables, LispExpression body,
+                  Node code) implements Node {
+
+    }
+
+    /// (f 1 2). The source expression is kept for error messages.
+    record Application(Node procedure, List<Node> arguments,
+                       LispExpression source) implements Node {
+
+    }
+}
@@ -1,20 +1,20 @@
 package net.fredrikmeyer.jisp.evaluator;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import net.fredrikmeyer.jisp.LispExpression;
 import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
 import net.fredrikmeyer.jisp.LispExpression.Nil;
 import net.fredrikmeyer.jisp.LispExpression.Ok;
 import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
 import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
 import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
 import net.fredrikmeyer.jisp.LispList;
 import net.fredrikmeyer.jisp.LispLiteral;
 import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
-import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.LispNumber;
 import net.fredrikmeyer.jisp.LispLiteral.StringLiteral;
 import net.fredrikmeyer.jisp.environment.Environment;
 import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Assignment;
@@ -27,164 +27,184 @@ import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Sequence;
 import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Set;
 import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Variable;
 
+/**
+ * Evaluates expressions as they are, counting the calls of each procedure and running the hot
+ * ones as analyzed code, see {@link Tiering}. An instance may be shared between threads.
+ */
 public class StandardEvalApply implements EvalApply {
 
+    private final Tiering tiering = new Tiering();
+
+    /**
+     * Runs hot procedures. Procedures they call are analyzed right away, since they are called
+     * from hot code.
+     */
+    private final AnalyzingEvalApply optimized = new AnalyzingEvalApply() {
+        @Override
+        protected Node.Lambda analyze(UserProcedure procedure) {
+            return tiering.analyzed(procedure);
+        }
+    };
+
+    /**
+     * Evaluate an expression. Expressions in tail position (the branches of an if, the last form
+     * of a begin and the body of a procedure) are not evaluated recursively: the loop continues
+     * with them instead, so tail calls run in constant Java stack.
+     */
     @Override
     public LispExpression eval(LispExpression expression, Environment environment) {
-        Objects.requireNonNull(expression); // (+ 1 2)
-
-        var parsed = parseExpression(expression);
+        while (true) {
+            Objects.requireNonNull(expression); // (+ 1 2)
 
-        return switch (parsed) {
-            case SelfEvaluating selfEvaluating -> selfEvaluating.literal();
+            var parsed = SyntacticFormParser.parse(expression);
 
-            case Variable(LispSymbol(var name)) -> {
-                LispExpression lispValue = environment.lookUpVariable(name);
-                if (lispValue == null) {
-                    yield new Nil();
+            switch (parsed) {
+                case SelfEvaluating selfEvaluating -> {
+                    return selfEvaluating.literal();
                 }
-                yield lispValue;
-            }
-            case Quotation(LispExpression exp) -> exp;
-
-            case Assignment(var symbol, var body) -> {
-                var name = symbol.name();
 
-                environment.setVariable(name, eval(body, environment));
+                case Variable(var symbol) -> {
+                    LispExpression lispValue = environment.lookUpVariable(symbol.name());
+                    if (lispValue == null) {
+                        return new Nil();
+                    }
+                    return lispValue;
+                }
+                case Quotation(LispExpression exp) -> {
+                    return exp;
+                }
 
-                yield new Ok();
-            }
+                case Assignment(var symbol, var body) -> {
+                    var name = symbol.name();
 
-            case Set(LispSymbol(var name), var value) -> {
-                if (environment.lookUpVariable(name) == null) {
-                    throw new RuntimeException("Cannot set! non-existing symbol.");
-                } else {
-                    environment.setVariable(name, eval(value, environment));
+                    environment.setVariable(name, eval(body, environment));
 
-                    yield new Ok();
+                    return new Ok();
                 }
-            }
 
-            // (if #t 1 2)
-            case Conditional(var condition, var then, var otherwise) -> {
-                var evaluatedCondition = eval(condition, environment);
+                case Set(var symbol, var value) -> {
+                    var name = symbol.name();
+                    if (environment.lookUpVariable(name) == null) {
+                        throw new RuntimeException("Cannot set! non-existing symbol.");
+                    } else {
+                        environment.setVariable(name, eval(value, environment));
 
-                if (isTrueIsh(evaluatedCondition)) {
-                    yield eval(then, environment);
-                } else {
-                    yield eval(otherwise, environment);
+                        return new Ok();
+                    }
                 }
-            }
 
-            // (f 1 2)
-            case FunctionApplication(var procedure, var arguments) -> {
-                var evaluatedProcedure = eval(procedure, environment);
+                // (if #t 1 2)
+                case Conditional(var condition, var then, var otherwise) -> {
+                    var evaluatedCondition = eval(condition, environment);
 
-                if (!(evaluatedProcedure instanceof Procedure p)) {
-                    throw new RuntimeException(
-                        "Procedure expected, got: " + procedure + ". Expression: " + expression);
+                    expression = isTrueIsh(evaluatedCondition) ? then : otherwise;
                 }
 
-                var evaluatedArguments = arguments
-                    .stream()
-                    .map(el -> eval(el, environment))
-                    .toList();
+                // (f 1 2)
+                case FunctionApplication(var procedure, var arguments) -> {
+                    var evaluatedProcedure = eval(procedure, environment);
 
-                yield apply(p, evaluatedArguments);
-            }
-            // (lambda (x) (+ x 1))
-            case Lambda(var arguments, var body) -> {
-                List<String> args = arguments.stream().map(LispSymbol::name).toList();
+                    if (!(evaluatedProcedure instanceof Procedure p)) {
+                        throw new RuntimeException(
+                            "Procedure expected, got: " + procedure + ". Expression: "
+                            + expression);
+                    }
 
-                yield new UserProcedure(environment, args, body);
-            }
+                    if (p instanceof BuiltInProcedure builtInProcedure) {
+                        return applyBuiltIn(builtInProcedure, arguments, environment);
+                    }
+
+                    var evaluatedArguments = evaluateArguments(arguments, environment);
+
+                    if (p instanceof UserProcedure userProcedure) {
+                        // Every call of a procedure in tail position is an iteration of this
+                        // loop, so loops are counted here as well.
+                        if (tiering.invoked(userProcedure) != null) {
+                            return optimized.apply(userProcedure,
+                                Arrays.asList(evaluatedArguments));
+                        }
+                        environment = userProcedure.environment()
+                            .extendEnvironment(userProcedure.arguments(), evaluatedArguments);
+                        expression = userProcedure.body();
+                    } else {
+                        return apply(p, Arrays.asList(evaluatedArguments));
+                    }
+                }
+                // (lambda (x) (+ x 1))
+                case Lambda(var arguments, var body) -> {
+                    List<String> args = arguments.stream().map(LispSymbol::name).toList();
 
-            case Sequence(var forms) -> {
-                LispExpression lastVal = null;
-                for (var e : forms) {
-                    lastVal = eval(e, environment);
+                    return new UserProcedure(environment, args, body);
                 }
 
-                yield Objects.requireNonNull(lastVal);
+                case Sequence(var forms) -> {
+                    // Walk the forms once, evaluating each one when the next is found, so that
+                    // the last is left in expression. An empty begin has no value, and fails at
+                    // the top of the loop.
+                    expression = null;
+                    for (var form : forms) {
+                        if (expression != null) {
+                            eval(expression, environment);
+                        }
+                        expression = form;
+                    }
+                }
             }
-        };
+        }
     }
 
     @Override
     public LispExpression apply(Procedure procedure, List<LispExpression> arguments) {
         return switch (procedure) {
-            case BuiltInProcedure builtInProcedure ->
-                builtInProcedure.apply(arguments.toArray(LispExpression[]::new));
-            case UserProcedure(Environment env, var args, var body) -> {
-                var newFrame = IntStream.range(0, arguments.size())
-                    .boxed()
-                    .collect(Collectors.toMap(args::get, arguments::get));
-                var newEnv = env.extendEnvironment(newFrame);
-
-                yield eval(body, newEnv);
-            }
+            case HigherOrderProcedure higherOrder ->
+                higherOrder.apply(this, arguments.toArray(LispExpression[]::new));
+            case BuiltInProcedure builtInProcedure -> builtInProcedure.applyTo(arguments);
+            case UserProcedure userProcedure -> tiering.invoked(userProcedure) != null
+                ? optimized.apply(userProcedure, arguments)
+                : eval(userProcedure.body(), userProcedure.environment().extendEnvironment(
+                    userProcedure.arguments(), arguments.toArray(LispExpression[]::new)));
+            case AnalyzedProcedure analyzedProcedure ->
+                optimized.apply(analyzedProcedure, arguments);
         };
     }
 
+    /**
+     * Call a built-in with the arguments evaluated straight into the method matching their
+     * number, so that calls with up to three arguments need no list or array.
+     */
+    private LispExpression applyBuiltIn(BuiltInProcedure procedure,
+                                        List<LispExpression> arguments,
+                                        Environment environment) {
+        if (procedure instanceof HigherOrderProcedure higherOrder) {
+            return higherOrder.apply(this, evaluateArguments(arguments, environment));
+        }
+        return switch (arguments.size()) {
+            case 0 -> procedure.apply0();
+            case 1 -> procedure.apply1(eval(arguments.get(0), environment));
+            case 2 -> procedure.apply2(eval(arguments.get(0), environment),
+                eval(arguments.get(1), environment));
+            case 3 -> procedure.apply3(eval(arguments.get(0), environment),
+                eval(arguments.get(1), environment), eval(arguments.get(2), environment));
+            default -> procedure.apply(evaluateArguments(arguments, environment));
+        };
+    }
 
-    private SyntacticForm parseExpression(LispExpression expression) {
-        // Is literal, return SyntacticForm of type SelfEvaluating
-        if (expression instanceof LispLiteral literal) {
-            return new SelfEvaluating(literal);
-        }
-
-        // Is variable
-        if (expression instanceof LispSymbol s) {
-            return new Variable(s);
-        }
-
-        // Starts with ' or (quote
-        if (parseQuotation(expression) instanceof Quotation q) {
-            return q;
-        }
-
-        // Example: (defn f (x) (+ x 1))
-        if (parseDefn(expression) instanceof Assignment assignment) {
-            return assignment;
-        }
-
-        // Example: (define a (+ 1 2))
-        if (parseAssignment(expression) instanceof Assignment assignment) {
-            return assignment;
-        }
-
-        if (parseSet(expression) instanceof Set set) {
-            return set;
-        }
-
-        // Example: (begin (define b 2) (+ b 3))
-        if (parseSequence(expression) instanceof Sequence sequence) {
-            return sequence;
-        }
-
-        // Example: (lambda (a b) (+ a b))
-        if (parseLambda(expression) instanceof Lambda lambda) {
-            return lambda;
-        }
-
-        // Example: (if <test> <then> <otherwise>)
-        if (parseConditional(expression) instanceof Conditional conditional) {
-            return conditional;
-        }
-
-        // Anything else is a function application: (f arg1 arg2)
-        if (parseFunctionApplication(
-            expression) instanceof FunctionApplication functionApplication) {
-            return functionApplication;
+    private LispExpression[] evaluateArguments(List<LispExpression> arguments,
+                                               Environment environment) {
+        // The arguments are a view of the cells of the source list, so they are walked rather
+        // than indexed.
+        var values = new LispExpression[arguments.size()];
+        int i = 0;
+        for (var argument : arguments) {
+            values[i++] = eval(argument, environment);
         }
-
-        throw new RuntimeException("Should not get here: " + expression);
+        return values;
     }
 
-    private boolean isTrueIsh(LispExpression expression) {
+    public static boolean isTrueIsh(LispExpression expression) {
         switch (expression) {
-            case LispSymbol(var name) -> {
-                return !name.equals("nil");
+            case LispSymbol symbol -> {
+                return !symbol.name().equals("nil");
             }
             case Procedure _ -> {
                 return true;
@@ -197,7 +217,7 @@ public class StandardEvalApply implements EvalApply {
                     case BoolValue boolValue -> {
                         return boolValue.value();
                     }
-                    case NumberLiteral _, StringLiteral _ -> {
+                    case LispNumber _, StringLiteral _ -> {
                         return true;
                     }
                 }
@@ -207,159 +227,4 @@ public class StandardEvalApply implements EvalApply {
             }
         }
     }
-
-    private Conditional parseConditional(LispExpression expression) {
-        if (expression instanceof LispList lispList) {
-            if (lispList.length() <= 3) {
-                return null;
-            }
-
-            if (!(lispList.car() instanceof LispSymbol(String name))) {
-                return null;
-            }
-
-            return name.equals("if") ? new Conditional(lispList.cadr(), lispList.caddr(),
-                lispList.cadddr()) : null;
-        }
-        return null;
-    }
-
-    private FunctionApplication parseFunctionApplication(LispExpression expression) {
-        if (expression instanceof LispList l && l.length() > 0) {
-            return new FunctionApplication(l.car(), l.cdr().elements());
-        }
-        return null;
-    }
-
-    private Sequence parseSequence(LispExpression expression) {
-        if (expression instanceof LispList lispList) {
-            if (lispList.length() < 1) {
-                return null;
-            }
-
-            if (!(lispList.car() instanceof LispSymbol(String name))) {
-                return null;
-            }
-
-            return name.equals("begin") ? new Sequence(lispList.cdr().elements()) : null;
-        }
-        return null;
-    }
-
-    private Quotation parseQuotation(LispExpression expression) {
-        return expression instanceof LispList l && l.car() instanceof LispSymbol(String name)
-               && name.equals("quote") ? new Quotation(l.cadr()) : null;
-    }
-
-    private Assignment parseAssignment(LispExpression expression) {
-        if (expression instanceof LispList lispList) {
-            if (lispList.length() != 3) {
-                return null;
-            }
-
-            if ((!(lispList.car() instanceof LispSymbol(String name)))) {
-                return null;
-            }
-
-            if (!name.equals("define")) {
-                return null;
-            }
-
-            if (!(lispList.cadr() instanceof LispSymbol var)) {
-                return null;
-            }
-
-            var rest = lispList.caddr();
-
-            return new Assignment(var, rest);
-        }
-        return null;
-    }
-
-    private Set parseSet(LispExpression expression) {
-        if (expression instanceof LispList lispList) {
-            if (lispList.length() != 3) {
-                return null;
-            }
-
-            if (!(lispList.car() instanceof LispSymbol(String name))) {
-                return null;
-            }
-
-            if (!name.equals("set!")) {
-                return null;
-            }
-
-            if (!(lispList.cadr() instanceof LispSymbol variable)) {
-                return null;
-            }
-
-            return new Set(variable, lispList.caddr());
-        }
-        return null;
-    }
-
-    private Lambda parseLambda(LispExpression expression) {
-        if (expression instanceof LispList lispList) {
-            if (!(lispList.car() instanceof LispSymbol(String name))) {
-                return null;
-            }
-
-            if (!(name.equals("lambda"))) {
-                return null;
-            }
-
-            if (!(lispList.cadr() instanceof LispList arguments)) {
-                return null;
-            }
-
-            if (!arguments.elements().stream().allMatch(e -> e instanceof LispSymbol)) {
-                throw new IllegalArgumentException("All args must be symbol");
-            }
-
-            return new Lambda(arguments.elements().stream().map(e -> (LispSymbol) e).toList(),
-                lispList.caddr());
-        }
-        return null;
-    }
-
-    /**
-     * Parse a defn expression: (defn f (x y) body)
-     * This is equivalent to: (define f (lambda (x y) body))
-     */
-    private Assignment parseDefn(LispExpression expression) {
-        if (expression instanceof LispList lispList) {
-            if (lispList.length() < 4) {
-                return null;
-            }
-
-            if (!(lispList.car() instanceof LispSymbol(String name))) {
-                return null;
-            }
-
-            if (!name.equals("defn")) {
-                return null;
-            }
-
-            if (!(lispList.cadr() instanceof LispSymbol functionName)) {
-                return null;
-            }
-
-            if (!(lispList.caddr() instanceof LispList arguments)) {
-                return null;
-            }
-
-            if (!arguments.elements().stream().allMatch(e -> e instanceof LispSymbol)) {
-                throw new IllegalArgumentException("All args must be symbol");
-            }
-
-            // Create a lambda expression: (lambda (args) body)
-            var lambdaSymbol = new LispSymbol("lambda");
-            var lambdaList = new LispList(List.of(lambdaSymbol, arguments, lispList.cadddr()));
-
-            // Return an assignment of the lambda to the function name
-            return new Assignment(functionName, lambdaList);
-        }
-        return null;
-    }
 }
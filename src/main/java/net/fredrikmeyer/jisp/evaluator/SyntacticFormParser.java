@@ -0,0 +1,242 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import java.util.List;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
+import net.fredrikmeyer.jisp.LispList;
+import net.fredrikmeyer.jisp.LispLiteral;
+import net.fredrikmeyer.jisp.environment.BuiltInEnvironment;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Assignment;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Conditional;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.FunctionApplication;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Lambda;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Quotation;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.SelfEvaluating;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Sequence;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Set;
+import net.fredrikmeyer.jisp.evaluator.SyntacticForm.Variable;
+
+/**
+ * Classifies a {@link LispExpression} into the {@link SyntacticForm} it represents. Shared by the
+ * evaluators so that they agree on what each special form looks like.
+ */
+final class SyntacticFormParser {
+
+    private static final LispSymbol QUOTE = LispSymbol.of("quote");
+    private static final LispSymbol DEFINE = LispSymbol.of("define");
+    private static final LispSymbol DEFN = LispSymbol.of("defn");
+    private static final LispSymbol DEFN_MEMO = LispSymbol.of("defn-memo");
+    private static final LispSymbol SET = LispSymbol.of("set!");
+    private static final LispSymbol BEGIN = LispSymbol.of("begin");
+    private static final LispSymbol LAMBDA = LispSymbol.of("lambda");
+    private static final LispSymbol IF = LispSymbol.of("if");
+
+    private SyntacticFormParser() {
+    }
+
+    private static LispList quote(LispExpression value) {
+        return new LispList(List.of(QUOTE, value));
+    }
+
+    /**
+     * Whether the form is the keyword. Symbols are interned, so this is a reference comparison.
+     */
+    private static boolean isKeyword(LispExpression form, LispSymbol keyword) {
+        return form == keyword;
+    }
+
+    static SyntacticForm parse(LispExpression expression) {
+        // Is literal, return SyntacticForm of type SelfEvaluating
+        if (expression instanceof LispLiteral literal) {
+            return new SelfEvaluating(literal);
+        }
+
+        // Is variable
+        if (expression instanceof LispSymbol s) {
+            return new Variable(s);
+        }
+
+        // Starts with ' or (quote
+        if (parseQuotation(expression) instanceof Quotation q) {
+            return q;
+        }
+
+        // Example: (defn f (x) (+ x 1))
+        if (parseDefn(expression) instanceof Assignment assignment) {
+            return assignment;
+        }
+
+        // Example: (define a (+ 1 2))
+        if (parseAssignment(expression) instanceof Assignment assignment) {
+            return assignment;
+        }
+
+        if (parseSet(expression) instanceof Set set) {
+            return set;
+        }
+
+        // Example: (begin (define b 2) (+ b 3))
+        if (parseSequence(expression) instanceof Sequence sequence) {
+            return sequence;
+        }
+
+        // Example: (lambda (a b) (+ a b))
+        if (parseLambda(expression) instanceof Lambda lambda) {
+            return lambda;
+        }
+
+        // Example: (if <test> <then> <otherwise>)
+        if (parseConditional(expression) instanceof Conditional conditional) {
+            return conditional;
+        }
+
+        // Anything else is a function application: (f arg1 arg2)
+        if (parseFunctionApplication(
+            expression) instanceof FunctionApplication functionApplication) {
+            return functionApplication;
+        }
+
+        throw new RuntimeException("Should not get here: " + expression);
+    }
+
+    private static Conditional parseConditional(LispExpression expression) {
+        if (expression instanceof LispList lispList) {
+            if (lispList.length() <= 3) {
+                return null;
+            }
+
+            return isKeyword(lispList.car(), IF) ? new Conditional(lispList.cadr(), lispList.caddr(),
+                lispList.cadddr()) : null;
+        }
+        return null;
+    }
+
+    private static FunctionApplication parseFunctionApplication(LispExpression expression) {
+        if (expression instanceof LispList l && l.length() > 0) {
+            return new FunctionApplication(l.car(), l.cdr().elements());
+        }
+        return null;
+    }
+
+    private static Sequence parseSequence(LispExpression expression) {
+        if (expression instanceof LispList lispList) {
+            if (lispList.length() < 1) {
+                return null;
+            }
+
+            return isKeyword(lispList.car(), BEGIN) ? new Sequence(lispList.cdr().elements()) : null;
+        }
+        return null;
+    }
+
+    private static Quotation parseQuotation(LispExpression expression) {
+        return expression instanceof LispList l && !l.isEmpty() && isKeyword(l.car(), QUOTE)
+               ? new Quotation(l.cadr()) : null;
+    }
+
+    private static Assignment parseAssignment(LispExpression expression) {
+        if (expression instanceof LispList lispList) {
+            if (lispList.length() != 3) {
+                return null;
+            }
+
+            if (!isKeyword(lispList.car(), DEFINE)) {
+                return null;
+            }
+
+            if (!(lispList.cadr() instanceof LispSymbol var)) {
+                return null;
+            }
+
+            var rest = lispList.caddr();
+
+            return new Assignment(var, rest);
+        }
+        return null;
+    }
+
+    private static Set parseSet(LispExpression expression) {
+        if (expression instanceof LispList lispList) {
+            if (lispList.length() != 3) {
+                return null;
+            }
+
+            if (!isKeyword(lispList.car(), SET)) {
+                return null;
+            }
+
+            if (!(lispList.cadr() instanceof LispSymbol variable)) {
+                return null;
+            }
+
+            return new Set(variable, lispList.caddr());
+        }
+        return null;
+    }
+
+    private static Lambda parseLambda(LispExpression expression) {
+        if (expression instanceof LispList lispList) {
+            if (lispList.isEmpty() || !isKeyword(lispList.car(), LAMBDA)) {
+                return null;
+            }
+
+            if (!(lispList.cadr() instanceof LispList arguments)) {
+                return null;
+            }
+
+            if (!arguments.elements().stream().allMatch(e -> e instanceof LispSymbol)) {
+                throw new IllegalArgumentException("All args must be symbol");
+            }
+
+            return new Lambda(arguments.elements().stream().map(e -> (LispSymbol) e).toList(),
+                lispList.caddr());
+        }
+        return null;
+    }
+
+    /**
+     * Parse a defn expression: (defn f (x y) body)
+     * This is equivalent to: (define f (lambda (x y) body))
+     * <p>
+     * (defn-memo f (x y) body) is equivalent to: (define f (memoize (lambda (x y) body))), with
+     * the built-in memoize quoted into the form, so that it is used even if the name memoize has
+     * been redefined.
+     */
+    private static Assignment parseDefn(LispExpression expression) {
+        if (expression instanceof LispList lispList) {
+            if (lispList.length() < 4) {
+                return null;
+            }
+
+            boolean memoized = isKeyword(lispList.car(), DEFN_MEMO);
+            if (!memoized && !isKeyword(lispList.car(), DEFN)) {
+                return null;
+            }
+
+            if (!(lispList.cadr() instanceof LispSymbol functionName)) {
+                return null;
+            }
+
+            if (!(lispList.caddr() instanceof LispList arguments)) {
+                return null;
+            }
+
+            if (!arguments.elements().stream().allMatch(e -> e instanceof LispSymbol)) {
+                throw new IllegalArgumentException("All args must be symbol");
+            }
+
+            // Create a lambda expression: (lambda (args) body)
+            var lambdaList = new LispList(List.of(LAMBDA, arguments, lispList.cadddr()));
+
+            if (memoized) {
+                var memoize = BuiltInEnvironment.getInstance().lookUpVariable("memoize");
+                return new Assignment(functionName,
+                    new LispList(List.of(quote(memoize), lambdaList)));
+            }
+
+            // Return an assignment of the lambda to the function name
+            return new Assignment(functionName, lambdaList);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,115 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
+import net.fredrikmeyer.jisp.evaluator.Node.Lambda;
+
+/**
+ * Decides when a {@link UserProcedure} is hot enough to be worth optimizing. Calls are counted
+ * per lambda, that is per parameter list and body, so all closures made from the same lambda
+ * share one count. When a lambda has been called {@link #HOT} times it is analyzed into a
+ * {@link Lambda}, once, and the analyzed code is used for every later call.
+ * <p>
+ * Bodies are compared by identity, since the same expression read twice is analyzed the same
+ * way anyway. The parameter lists are compared by value: lambdas with different parameters may
+ * share a body, such as a cached integer or an interned symbol, but not their analyzed code.
+ * <p>
+ * Procedures that are only called a few times, like one-offs typed at the REPL, are never
+ * analyzed, so creating and calling them costs no more than it did before.
+ * <p>
+ * Safe to share between threads. Finding a profile takes a short lock on the profiles, but
+ * counting the call and analyzing the procedure happen outside it.
+ */
+final class Tiering {
+
+    static final int HOT = 100;
+
+    /**
+     * A REPL session keeps making new lambdas. When there are this many profiles, the least
+     * recently called lambda's is thrown away.
+     */
+    static final int MAX_PROFILES = 10_000;
+
+    private static final class Profile {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+        private volatile Lambda lambda;
+    }
+
+    private final Analyzer analyzer = new Analyzer();
+    private final Map<Key, Profile> profiles = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Profile> eldest) {
+            return size() > MAX_PROFILES;
+        }
+    };
+
+    /**
+     * Count a call of the procedure.
+     *
+     * @return the analyzed procedure if it is hot, otherwise null
+     */
+    Lambda invoked(UserProcedure procedure) {
+        var profile = profile(procedure);
+        var lambda = profile.lambda;
+        if (lambda == null && profile.invocations.incrementAndGet() >= HOT) {
+            lambda = analyze(profile, procedure);
+        }
+        return lambda;
+    }
+
+    /**
+     * The analyzed procedure, analyzing it now if it has not been already.
+     */
+    Lambda analyzed(UserProcedure procedure) {
+        var profile = profile(procedure);
+        var lambda = profile.lambda;
+        return lambda != null ? lambda : analyze(profile, procedure);
+    }
+
+    int size() {
+        synchronized (profiles) {
+            return profiles.size();
+        }
+    }
+
+    private Profile profile(UserProcedure procedure) {
+        var key = new Key(procedure.arguments(), procedure.body());
+        synchronized (profiles) {
+            return profiles.computeIfAbsent(key, k -> new Profile());
+        }
+    }
+
+    /**
+     * Analyze the procedure, unless another thread already has.
+     */
+    private Lambda analyze(Profile profile, UserProcedure procedure) {
+        synchronized (profile) {
+            if (profile.lambda == null) {
+                profile.lambda = analyzer.analyzeProcedure(procedure);
+            }
+            return profile.lambda;
+        }
+    }
+
+    /**
+     * A lambda: its parameters by value and its body by identity.
+     */
+    private record Key(List<String> arguments, LispExpression body) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key(var otherArguments, var otherBody) && body == otherBody
+                   && arguments.equals(otherArguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(body) + arguments.hashCode();
+        }
+    }
+}
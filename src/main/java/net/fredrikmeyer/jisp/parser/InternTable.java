@@ -0,0 +1,128 @@
+package net.fredrikmeyer.jisp.parser;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispList;
+import net.fredrikmeyer.jisp.LispLiteral;
+
+/**
+ * Hash-consing for data read by a {@link LispReader}: one canonical copy of each literal and each
+ * list, so that repeated structure in the source is shared instead of read into separate, equal
+ * objects. Equal data read through the same table is then identical, and comparing it stops at
+ * the first reference check.
+ * <p>
+ * A list is interned one cell at a time, from the end. The car and cdr of a cell are canonical
+ * already, so a cell is found by their identity, in constant time, without walking the list it
+ * starts.
+ * <p>
+ * The table holds its entries weakly: an entry goes away once nothing else refers to it. Safe to
+ * share between threads.
+ */
+public final class InternTable {
+
+    private final ReferenceQueue<LispExpression> collected = new ReferenceQueue<>();
+    private Entry[] buckets = new Entry[16];
+    private int size;
+
+    /**
+     * The canonical literal equal to {@code literal}.
+     */
+    public synchronized LispLiteral intern(LispLiteral literal) {
+        removeCollected();
+        int hash = literal.hashCode();
+        for (Entry entry = buckets[index(hash)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.get() instanceof LispLiteral existing
+                && existing.equals(literal)) {
+                return existing;
+            }
+        }
+        add(literal, hash);
+        return literal;
+    }
+
+    /**
+     * The canonical list of {@code car} in front of {@code cdr}, both of which should be
+     * canonical.
+     */
+    public synchronized LispList cons(LispExpression car, LispList cdr) {
+        removeCollected();
+        int hash = 31 * System.identityHashCode(car) + System.identityHashCode(cdr);
+        for (Entry entry = buckets[index(hash)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.get() instanceof LispList existing
+                && existing.car() == car && existing.cdr() == cdr) {
+                return existing;
+            }
+        }
+        LispList list = LispList.cons(car, cdr);
+        add(list, hash);
+        return list;
+    }
+
+    /**
+     * The number of entries, including any that have been collected but not removed yet.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private int index(int hash) {
+        return (hash ^ (hash >>> 16)) & (buckets.length - 1);
+    }
+
+    private void add(LispExpression value, int hash) {
+        if (size >= buckets.length * 3 / 4) {
+            resize();
+        }
+        int index = index(hash);
+        buckets[index] = new Entry(value, hash, buckets[index], collected);
+        size++;
+    }
+
+    private void resize() {
+        Entry[] old = buckets;
+        buckets = new Entry[old.length * 2];
+        for (Entry entry : old) {
+            while (entry != null) {
+                Entry next = entry.next;
+                int index = index(entry.hash);
+                entry.next = buckets[index];
+                buckets[index] = entry;
+                entry = next;
+            }
+        }
+    }
+
+    private void removeCollected() {
+        Object reference;
+        while ((reference = collected.poll()) != null) {
+            Entry entry = (Entry) reference;
+            int index = index(entry.hash);
+            if (buckets[index] == entry) {
+                buckets[index] = entry.next;
+                size--;
+                continue;
+            }
+            for (Entry previous = buckets[index]; previous != null; previous = previous.next) {
+                if (previous.next == entry) {
+                    previous.next = entry.next;
+                    size--;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static final class Entry extends WeakReference<LispExpression> {
+
+        private final int hash;
+        private Entry next;
+
+        Entry(LispExpression value, int hash, Entry next,
+              ReferenceQueue<LispExpression> queue) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package net.fredrikmeyer.jisp.parser;
+
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.BOOLEAN;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.DECIMAL;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.END_OF_INPUT;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.INTEGER;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.LEFT_PAREN;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.QUOTE;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.RIGHT_PAREN;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.STRING;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.SYMBOL;
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import net.fredrikmeyer.jisp.Arithmetic;
+import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
+import net.fredrikmeyer.jisp.LispList;
+import net.fredrikmeyer.jisp.LispLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.StringLiteral;
+import net.fredrikmeyer.jisp.tokenizer.TokenStream;
+
+/**
+ * Reads expressions straight from source text, in a single pass. The characters are scanned by
+ * a {@link TokenStream}, but no {@link net.fredrikmeyer.jisp.tokenizer.Token} is ever made: each
+ * token is turned into its expression as soon as it is scanned, and there is no list of tokens.
+ * <p>
+ * The open lists are kept on an explicit stack rather than the Java stack, so deeply nested
+ * expressions can be read.
+ * <p>
+ * Given an {@link InternTable}, the reader hash-conses what it reads: literals, and lists quoted
+ * with {@code '}, are replaced by their canonical copies, so repeated data shares its structure.
+ * Code is not interned, since evaluators may keep state per expression.
+ */
+public final class LispReader implements Closeable {
+
+    private static final LispSymbol QUOTE_SYMBOL = LispSymbol.of("quote");
+
+    private final TokenStream tokens;
+    private final InternTable table;
+
+    // The lists still open, innermost last. A null stands for a quote waiting for the
+    // expression it quotes.
+    private final List<List<LispExpression>> open = new ArrayList<>();
+    // The number of nulls in open, that is, how many quotes the expression being read is in.
+    private int quotes;
+
+    public LispReader(TokenStream tokens) {
+        this(tokens, null);
+    }
+
+    /**
+     * @param table the table to intern data in, or null to not intern it
+     */
+    public LispReader(TokenStream tokens, InternTable table) {
+        this.tokens = Objects.requireNonNull(tokens);
+        this.table = table;
+    }
+
+    public LispReader(Reader reader) {
+        this(new TokenStream(reader));
+    }
+
+    public static LispReader of(String source) {
+        return new LispReader(TokenStream.of(source));
+    }
+
+    /**
+     * Read the one expression in the source.
+     */
+    public static LispExpression parse(String source) {
+        var reader = of(source);
+        LispExpression expression = reader.read();
+        if (expression == null) {
+            throw new RuntimeException("No tokens parsed.");
+        }
+        if (reader.read() != null) {
+            throw new RuntimeException("Expected one expression. Position: "
+                                       + reader.tokens.start());
+        }
+        return expression;
+    }
+
+    /**
+     * Read the next expression. Only the characters of that expression are consumed, so a large
+     * source can be read and evaluated one expression at a time.
+     *
+     * @return the expression, or null at the end of the input
+     */
+    public LispExpression read() {
+        open.clear();
+        quotes = 0;
+        while (true) {
+            LispExpression complete;
+            switch (tokens.scan()) {
+                case LEFT_PAREN -> {
+                    open.add(new ArrayList<>());
+                    continue;
+                }
+                case QUOTE -> {
+                    open.add(null);
+                    quotes++;
+                    continue;
+                }
+                case RIGHT_PAREN -> {
+                    if (open.isEmpty() || open.getLast() == null) {
+                        throw new RuntimeException(
+                            "Mismatched parentheses. Position: " + tokens.start());
+                    }
+                    complete = list(open.removeLast());
+                }
+                case END_OF_INPUT -> {
+                    if (!open.isEmpty()) {
+                        throw new RuntimeException(
+                            "Unexpected end of input. Position: " + tokens.start());
+                    }
+                    return null;
+                }
+                case SYMBOL -> complete = LispSymbol.of(tokens.text());
+                case STRING -> complete = literal(new StringLiteral(tokens.text()));
+                case INTEGER -> complete = literal(tokens.isLong()
+                    ? IntegerLiteral.of(tokens.longValue())
+                    : Arithmetic.integer(tokens.bigIntegerValue()));
+                case DECIMAL -> complete = literal(NumberLiteral.of(tokens.doubleValue()));
+                case BOOLEAN -> complete = BoolValue.of(tokens.booleanValue());
+                default -> throw new IllegalStateException("Unknown token");
+            }
+
+            while (!open.isEmpty() && open.getLast() == null) {
+                open.removeLast();
+                quotes--;
+                complete = list(List.of(QUOTE_SYMBOL, complete));
+            }
+            if (open.isEmpty()) {
+                return complete;
+            }
+            open.getLast().add(complete);
+        }
+    }
+
+    private LispLiteral literal(LispLiteral literal) {
+        return table == null ? literal : table.intern(literal);
+    }
+
+    /**
+     * A list of the elements, interned if it is quoted.
+     */
+    private LispList list(List<LispExpression> elements) {
+        if (table == null || quotes == 0) {
+            return new LispList(elements);
+        }
+        LispList list = LispList.empty();
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            list = table.cons(elements.get(i), list);
+        }
+        return list;
+    }
+
+    @Override
+    public void close() {
+        tokens.close();
+    }
+}
@@ -5,24 +5,31 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Stack;
+import net.fredrikmeyer.jisp.Arithmetic;
 import net.fredrikmeyer.jisp.LispExpression;
 import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
 import net.fredrikmeyer.jisp.LispList;
 import net.fredrikmeyer.jisp.LispLiteral;
 import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.LispNumber;
 import net.fredrikmeyer.jisp.tokenizer.Token;
+import net.fredrikmeyer.jisp.tokenizer.Token.BigIntegerLiteral;
 import net.fredrikmeyer.jisp.tokenizer.Token.BooleanLiteral;
 import net.fredrikmeyer.jisp.tokenizer.Token.EOF;
+import net.fredrikmeyer.jisp.tokenizer.Token.IntegerLiteral;
 import net.fredrikmeyer.jisp.tokenizer.Token.LeftParen;
 import net.fredrikmeyer.jisp.tokenizer.Token.NumberLiteral;
 import net.fredrikmeyer.jisp.tokenizer.Token.Quote;
 import net.fredrikmeyer.jisp.tokenizer.Token.RightParen;
 import net.fredrikmeyer.jisp.tokenizer.Token.StringLiteral;
 import net.fredrikmeyer.jisp.tokenizer.Token.Symbol;
+import net.fredrikmeyer.jisp.tokenizer.TokenStream;
 import org.jetbrains.annotations.NotNull;
 
 public class ParserImpl implements Parser {
 
+    private static final LispSymbol QUOTE = LispSymbol.of("quote");
+
     @NotNull
     @Override
     public LispExpression parse(List<Token> inputTokens) {
@@ -39,16 +46,17 @@ public class ParserImpl implements Parser {
         if (tokens.size() == 2) {
             Token first = tokens.getFirst();
             return switch (first) {
-                case NumberLiteral numberLiteral -> parseNumberLiteral(numberLiteral);
+                case NumberLiteral _, IntegerLiteral _, BigIntegerLiteral _ -> parseNumber(first);
                 case StringLiteral stringLiteral -> parseStringLiteral(stringLiteral);
-                case Symbol symbol -> new LispSymbol(symbol.value());
+                case Symbol symbol -> LispSymbol.of(symbol.value());
                 default -> {
                     throw new RuntimeException("No tokens parsed.");
                 }
             };
         }
 
-        Stack<LispList> stack = new Stack<>();
+        // The elements of each list that is still open. They become a LispList when it closes.
+        Stack<List<LispExpression>> stack = new Stack<>();
         LispList res = null;
 
         for (int i = 0; i < tokens.size(); i++) {
@@ -58,57 +66,56 @@ public class ParserImpl implements Parser {
             }
             switch (t) {
                 case LeftParen _ -> {
-                    stack.push(new LispList(new ArrayList<>()));
+                    stack.push(new ArrayList<>());
                 }
                 case RightParen _ -> {
                     if (stack.isEmpty()) {
                         throw new RuntimeException("Mismatched parentheses. Tokens: " + Arrays.toString(tokens.toArray()));
                     }
-                    var popped = stack.pop();
+                    var popped = new LispList(stack.pop());
                     if (stack.isEmpty()) {
                         res = popped;
                     } else {
-                        stack.peek().append(popped); // This is a sublist, append to the parent list
+                        stack.peek().add(popped); // This is a sublist, append to the parent list
                     }
                 }
-                case NumberLiteral numberLiteral -> {
+                case NumberLiteral _, IntegerLiteral _, BigIntegerLiteral _ -> {
                     if (!stack.isEmpty()) {
-                        stack.peek().append(parseNumberLiteral(numberLiteral));
+                        stack.peek().add(parseNumber(t));
                     } else {
                         throw new RuntimeException(
                             "Should not get here. Illegal expression at position: "
-                            + numberLiteral.position());
+                            + t.position());
                     }
                 }
                 case StringLiteral stringLiteral -> {
                     if (!stack.isEmpty()) {
-                        stack.peek().append(parseStringLiteral(stringLiteral));
+                        stack.peek().add(parseStringLiteral(stringLiteral));
                     } else {
                         throw new RuntimeException("Should not get here.");
                     }
                 }
                 case Symbol symbol -> {
                     if (!stack.isEmpty()) {
-                        stack.peek().append(new LispSymbol(symbol.value()));
+                        stack.peek().add(LispSymbol.of(symbol.value()));
                     } else {
                         throw new RuntimeException("Should not get here.");
                     }
                 }
                 case Quote _ -> {
                     if (!stack.isEmpty()) {
-                        stack.push(new LispList(new ArrayList<>()));
-                        stack.peek().append(new LispSymbol("quote"));
+                        stack.push(new ArrayList<>());
+                        stack.peek().add(QUOTE);
                     } else {
                         ArrayList<LispExpression> emptyList = new ArrayList<>();
-                        emptyList.add(new LispSymbol("quote"));
-                        LispList quote = new LispList(emptyList);
-                        stack.push(quote);
+                        emptyList.add(QUOTE);
+                        stack.push(emptyList);
                         tokens.add(tokens.size() - 2, new RightParen());
                     }
                 }
                 case BooleanLiteral booleanLiteral -> {
                     if (!stack.isEmpty()) {
-                        stack.peek().append(new BoolValue(booleanLiteral.value()));
+                        stack.peek().add(BoolValue.of(booleanLiteral.value()));
                     } else {
                         throw new RuntimeException("Should not get here.");
                     }
@@ -120,17 +127,33 @@ public class ParserImpl implements Parser {
         }
 
         if (!stack.isEmpty()) {
-            return stack.pop();
+            return new LispList(stack.pop());
         }
 
         return Objects.requireNonNull(res);
     }
 
+    /**
+     * Read the next expression from a stream of tokens, with a {@link LispReader}. Only the
+     * tokens of that expression are consumed, so a large source can be read and evaluated one
+     * expression at a time.
+     *
+     * @return the expression, or null when the tokens are used up
+     */
+    public LispExpression read(TokenStream tokens) {
+        return new LispReader(tokens).read();
+    }
+
     private static LispLiteral.StringLiteral parseStringLiteral(Token.StringLiteral s) {
         return new LispLiteral.StringLiteral(s.value());
     }
 
-    private static LispLiteral.NumberLiteral parseNumberLiteral(Token.NumberLiteral n) {
-        return new LispLiteral.NumberLiteral(n.value());
+    private static LispNumber parseNumber(Token number) {
+        return switch (number) {
+            case NumberLiteral n -> LispLiteral.NumberLiteral.of(n.value());
+            case IntegerLiteral n -> LispLiteral.IntegerLiteral.of(n.value());
+            case BigIntegerLiteral n -> Arithmetic.integer(n.value());
+            default -> throw new IllegalArgumentException("Not a number: " + number);
+        };
     }
 }
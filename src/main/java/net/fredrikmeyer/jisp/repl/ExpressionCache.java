@@ -0,0 +1,78 @@
+package net.fredrikmeyer.jisp.repl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import net.fredrikmeyer.jisp.evaluator.Node;
+
+/**
+ * The analyzed expressions of recently evaluated source texts, so that a source submitted again
+ * is neither tokenized, parsed nor analyzed. When full, the least recently used source is
+ * evicted. Safe to share between threads.
+ */
+public final class ExpressionCache {
+
+    private final int capacity;
+    private final Map<String, Node> entries;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param capacity the number of sources to keep; 0 turns the cache off
+     */
+    public ExpressionCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Node> eldest) {
+                return size() > ExpressionCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * The node cached for the source, or else the one {@code analyze} makes of it. Analysis
+     * happens outside the lock, so a slow source does not hold up other threads. If
+     * {@code analyze} throws, nothing is cached.
+     */
+    public Node get(String source, Function<String, Node> analyze) {
+        synchronized (this) {
+            Node node = entries.get(source);
+            if (node != null) {
+                hits++;
+                return node;
+            }
+            misses++;
+        }
+        Node node = analyze.apply(source);
+        synchronized (this) {
+            entries.put(source, node);
+        }
+        return node;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ExpressionCache[size=" + entries.size() + ", capacity=" + capacity + ", hits="
+               + hits + ", misses=" + misses + "]";
+    }
+}
@@ -1,24 +1,47 @@
 package net.fredrikmeyer.jisp.repl;
 
-import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
-import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.Node;
 import net.fredrikmeyer.jisp.LispExpression;
+import net.fredrikmeyer.jisp.Loader;
 import net.fredrikmeyer.jisp.environment.Environment;
 import net.fredrikmeyer.jisp.environment.StandardEnvironment;
-import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.parser.LispReader;
 import net.fredrikmeyer.jisp.repl.ReplResult.Quit;
 import net.fredrikmeyer.jisp.repl.ReplResult.StringValue;
-import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
 import org.intellij.lang.annotations.Language;
 
 public class Repl {
 
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
     private final Environment environment;
-    private final EvalApply evalApply;
+    private final AnalyzingEvalApply evalApply;
+    private final ExpressionCache cache;
 
     public Repl() {
-        this.environment = new StandardEnvironment();
-        this.evalApply = new StandardEvalApply();
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize how many recently entered sources to keep analyzed, see
+     *                  {@link ExpressionCache}
+     */
+    public Repl(int cacheSize) {
+        this(new StandardEnvironment(), new ExpressionCache(cacheSize));
+        environment.setVariable("load", Loader.procedure(evalApply, environment));
+    }
+
+    /**
+     * A REPL evaluating in the given environment. Unlike a REPL of its own, it does not define
+     * {@code load}, so it can not be made to read files, as when it serves a remote client. The
+     * cache may be shared by several REPLs, since the analyzed expressions do not depend on the
+     * environment.
+     */
+    public Repl(Environment environment, ExpressionCache cache) {
+        this.environment = environment;
+        this.evalApply = new AnalyzingEvalApply();
+        this.cache = cache;
     }
 
     public ReplResult write(@Language("scheme") String input) {
@@ -38,11 +61,11 @@ public class Repl {
     }
 
     private LispExpression evaluateLastLine(@Language("scheme") String line) {
-        LispExpression parsed = parse(line);
-        return evalApply.eval(parsed, environment);
+        Node node = cache.get(line, source -> evalApply.analyze(LispReader.parse(source)));
+        return evalApply.execute(node, environment);
     }
 
-    private LispExpression parse(@Language("scheme") String input) {
-        return new ParserImpl().parse(new TokenizerImpl().tokenize(input));
+    public ExpressionCache cache() {
+        return cache;
     }
 }
@@ -0,0 +1,134 @@
+package net.fredrikmeyer.jisp.repl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.repl.ReplResult.StringValue;
+
+/**
+ * Serves REPL sessions over TCP. Every connection gets its own {@link Repl} on its own virtual
+ * thread, so thousands of mostly idle clients cost little more than their sockets.
+ * <p>
+ * A session's definitions live in its own environment, on top of a prelude shared by all
+ * sessions. The prelude is frozen when the server starts, so it can not be changed through the
+ * server: a session defining one of its names only shadows it, and a prelude procedure setting
+ * a prelude variable fails instead of changing it for every session. Sessions also share one {@link ExpressionCache}, so an expression many
+ * clients send is only analyzed once.
+ * <p>
+ * The protocol is lines of UTF-8 text. Each line the client sends is evaluated as one expression
+ * and answered with one line, the value or an error message. A client may send several lines
+ * without waiting for the answers; they come back in order, and are only flushed once the client
+ * has nothing more waiting to be read. Sending {@code exit} ends the session.
+ */
+public final class Server implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final StandardEnvironment prelude;
+    private final ExpressionCache cache;
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    private Server(ServerSocket serverSocket, StandardEnvironment prelude, ExpressionCache cache) {
+        prelude.freeze();
+        this.serverSocket = serverSocket;
+        this.prelude = prelude;
+        this.cache = cache;
+        this.acceptor = Thread.ofVirtual().name("jisp-server").start(this::accept);
+    }
+
+    /**
+     * Start serving on the given port on the loopback address, or on any free port if it is 0.
+     * The prelude is frozen, see {@link StandardEnvironment#freeze()}.
+     */
+    public static Server start(int port, StandardEnvironment prelude) throws IOException {
+        return start(new ServerSocket(port, 0, InetAddress.getLoopbackAddress()), prelude);
+    }
+
+    public static Server start(ServerSocket serverSocket, StandardEnvironment prelude) {
+        return new Server(serverSocket, Objects.requireNonNull(prelude),
+            new ExpressionCache(Repl.DEFAULT_CACHE_SIZE));
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public ExpressionCache cache() {
+        return cache;
+    }
+
+    /**
+     * Block until the server is closed.
+     */
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stop accepting connections and end every open session.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close();
+        }
+        sessions.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                connections.add(connection);
+                sessions.submit(() -> serve(connection));
+            } catch (SocketException e) {
+                // The server socket was closed.
+                return;
+            } catch (IOException e) {
+                System.err.println("Could not accept connection: " + e);
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (connection;
+             var in = new BufferedReader(
+                 new InputStreamReader(connection.getInputStream(), UTF_8));
+             var out = new BufferedWriter(
+                 new OutputStreamWriter(connection.getOutputStream(), UTF_8))) {
+            var repl = new Repl(new StandardEnvironment(prelude), cache);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!(repl.write(line) instanceof StringValue(var value))) {
+                    break;
+                }
+                out.write(Objects.toString(value).replace('\n', ' '));
+                out.newLine();
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // The client went away, or the server is closing.
+        } finally {
+            connections.remove(connection);
+        }
+    }
+}
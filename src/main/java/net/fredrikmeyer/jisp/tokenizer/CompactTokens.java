@@ -0,0 +1,83 @@
+package net.fredrikmeyer.jisp.tokenizer;
+
+import java.util.Arrays;
+
+/**
+ * All the tokens of a source text, kept in three parallel int arrays instead of as one
+ * {@link Token} object each: the kind of every token, and where it starts and ends in the source.
+ * Tokenizing a large text this way allocates a few arrays, growing as needed, and nothing per
+ * token. The text of a token is only cut out of the source when asked for.
+ * <p>
+ * A string token starts and ends with its contents, inside the quotes.
+ */
+public final class CompactTokens {
+
+    public static final int LEFT_PAREN = 0;
+    public static final int RIGHT_PAREN = 1;
+    public static final int SYMBOL = 2;
+    public static final int STRING = 3;
+    public static final int INTEGER = 4;
+    public static final int DECIMAL = 5;
+    public static final int QUOTE = 6;
+    public static final int BOOLEAN = 7;
+    public static final int END_OF_INPUT = 8;
+
+    private final String source;
+    private int[] kinds;
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    private CompactTokens(String source) {
+        this.source = source;
+        // Real programs have about one token for every three or four characters.
+        int capacity = Math.max(16, source.length() / 3);
+        this.kinds = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+    }
+
+    /**
+     * Tokenize the whole source. The last token is always {@link #END_OF_INPUT}.
+     */
+    public static CompactTokens tokenize(String source) {
+        var tokens = new CompactTokens(source);
+        var stream = TokenStream.of(source);
+        while (stream.hasNext()) {
+            tokens.add(stream.scan(), stream.start(), stream.end());
+        }
+        return tokens;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int kind(int index) {
+        return kinds[index];
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int end(int index) {
+        return ends[index];
+    }
+
+    public String text(int index) {
+        return source.substring(starts[index], ends[index]);
+    }
+
+    private void add(int kind, int start, int end) {
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, size * 2);
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        kinds[size] = kind;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+}
@@ -1,5 +1,7 @@
 package net.fredrikmeyer.jisp.tokenizer;
 
+import java.math.BigInteger;
+
 public sealed interface Token {
 
     int position();
@@ -44,6 +46,18 @@ public sealed interface Token {
         }
     }
 
+    record IntegerLiteral(long value, int position) implements Token {
+
+        public IntegerLiteral(long value) {
+            this(value, 0);
+        }
+    }
+
+    /// A whole number too large for a long.
+    record BigIntegerLiteral(BigInteger value, int position) implements Token {
+
+    }
+
     record BooleanLiteral(boolean value, int position) implements Token {
 
     }
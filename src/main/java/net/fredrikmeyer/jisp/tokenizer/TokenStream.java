@@ -0,0 +1,622 @@
+package net.fredrikmeyer.jisp.tokenizer;
+
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.BOOLEAN;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.DECIMAL;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.END_OF_INPUT;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.INTEGER;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.LEFT_PAREN;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.QUOTE;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.RIGHT_PAREN;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.STRING;
+import static net.fredrikmeyer.jisp.tokenizer.CompactTokens.SYMBOL;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A tokenizer that produces one token at a time, when asked for it. Unlike
+ * {@link TokenizerImpl#tokenize(String)}, neither the source nor the list of all its tokens is
+ * ever held in memory, so it suits large source files.
+ * <p>
+ * Characters are either read in place from a {@link CharSequence}, such as a {@code String},
+ * scanned in a char array filled from a {@link Reader}, or taken straight from the bytes of
+ * UTF-8 text in a {@link ByteBuffer}, such as a memory-mapped file. ASCII characters are classified with a lookup table. The text of a token is
+ * cut straight out of the input, and numbers are converted while they are scanned whenever that
+ * gives the exact result.
+ * <p>
+ * The last token is always an {@link Token.EOF}, after which {@link #hasNext()} is false.
+ * Positions are counted in characters from the start of the input, or in bytes when reading
+ * bytes.
+ */
+public class TokenStream implements Iterator<Token>, Closeable {
+
+    private static final int END = -1;
+
+    private static final byte WHITESPACE = 1;
+    private static final byte SYMBOL_INITIAL = 2;
+    private static final byte SYMBOL_SUBSEQUENT = 4;
+    private static final byte DIGIT = 8;
+
+    /**
+     * The classes of each ASCII character.
+     */
+    private static final byte[] CLASSES = new byte[128];
+
+    static {
+        for (int c = 0; c < CLASSES.length; c++) {
+            int classes = 0;
+            if (Character.isWhitespace(c)) {
+                classes |= WHITESPACE;
+            }
+            if (Character.isAlphabetic(c) || "!$%&*/:<=>?~_^".indexOf(c) >= 0) {
+                classes |= SYMBOL_INITIAL | SYMBOL_SUBSEQUENT;
+            }
+            if (Character.isDigit(c)) {
+                classes |= DIGIT | SYMBOL_SUBSEQUENT;
+            }
+            if (".@+-".indexOf(c) >= 0) {
+                classes |= SYMBOL_SUBSEQUENT;
+            }
+            CLASSES[c] = (byte) classes;
+        }
+    }
+
+    /**
+     * Powers of ten that are exact as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final Source source;
+    private boolean done;
+
+    // The token last scanned.
+    private int start;
+    private int end;
+    // Characters at the end of the token that are not part of its text: a closing quote.
+    private int trailing;
+    private boolean negative;
+    private long digits;
+    private int digitCount;
+    private int fractionDigits;
+
+    public TokenStream(Reader reader) {
+        this(new CharSource(Objects.requireNonNull(reader)));
+    }
+
+    private TokenStream(Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Tokens from the characters, read where they are rather than copied.
+     */
+    public static TokenStream of(CharSequence input) {
+        return new TokenStream(new CharSequenceSource(Objects.requireNonNull(input)));
+    }
+
+    /**
+     * Tokens from a channel of UTF-8 text.
+     */
+    public static TokenStream of(ReadableByteChannel channel) {
+        return new TokenStream(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tokens from the remaining bytes of UTF-8 text in the buffer. The bytes are tokenized where
+     * they are; only the text of symbols, strings and numbers is decoded.
+     */
+    public static TokenStream of(ByteBuffer utf8) {
+        return new TokenStream(new ByteSource(utf8.slice()));
+    }
+
+    /**
+     * Tokens from a UTF-8 file, mapped into memory rather than read onto the heap.
+     */
+    public static TokenStream map(Path file) throws IOException {
+        try (var channel = FileChannel.open(file)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + file);
+            }
+            return of(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !done;
+    }
+
+    @Override
+    public Token next() {
+        if (done) {
+            throw new NoSuchElementException();
+        }
+
+        return switch (scan()) {
+            case LEFT_PAREN -> new Token.LeftParen(start);
+            case RIGHT_PAREN -> new Token.RightParen(start);
+            case QUOTE -> new Token.Quote(start);
+            case BOOLEAN -> new Token.BooleanLiteral(booleanValue(), start);
+            case SYMBOL -> new Token.Symbol(text(), start);
+            case STRING -> new Token.StringLiteral(text(), start);
+            case INTEGER -> isLong()
+                ? new Token.IntegerLiteral(longValue(), start)
+                : new Token.BigIntegerLiteral(bigIntegerValue(), start);
+            case DECIMAL -> new Token.NumberLiteral(doubleValue(), start);
+            default -> new Token.EOF(start);
+        };
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+
+    /**
+     * Scan the next token without making a {@link Token} of it. Afterwards, {@link #start} and
+     * {@link #end} are its position, which for a string is that of its contents, and its value
+     * can be had from the accessor for its kind, such as {@link #text()} or
+     * {@link #longValue()}.
+     *
+     * @return the kind of token, one of the constants in {@link CompactTokens}
+     */
+    public int scan() {
+        int c = source.peek(0);
+        while (is(c, WHITESPACE)) {
+            source.advance();
+            c = source.peek(0);
+        }
+        start = source.position();
+        source.mark();
+        trailing = 0;
+
+        int kind;
+        if (c == END) {
+            done = true;
+            kind = END_OF_INPUT;
+        } else if (c == '(') {
+            source.advance();
+            kind = LEFT_PAREN;
+        } else if (c == ')') {
+            source.advance();
+            kind = RIGHT_PAREN;
+        } else if (isInitialInSymbol(c)) {
+            do {
+                source.advance();
+            } while (is(source.peek(0), SYMBOL_SUBSEQUENT));
+            kind = SYMBOL;
+        } else if (c == '"') {
+            kind = string();
+        } else if (is(c, DIGIT) || c == '-') {
+            kind = number();
+        } else if (c == '\'') {
+            source.advance();
+            kind = QUOTE;
+        } else if (c == '#') {
+            kind = bool();
+        } else {
+            throw new IllegalArgumentException(
+                "Unexpected character: " + (char) c + ". Position: " + start + ".");
+        }
+
+        end = source.position() - trailing;
+        return kind;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    /**
+     * The text of the symbol or string last scanned, or of the number as written.
+     */
+    public String text() {
+        return source.text(trailing);
+    }
+
+    public boolean booleanValue() {
+        return source.peek(-1) == 't';
+    }
+
+    /**
+     * Whether the integer last scanned fits in a long. If not, it is a
+     * {@link #bigIntegerValue()}.
+     */
+    public boolean isLong() {
+        if (digitCount > 0 && digitCount <= 18) {
+            return true;
+        }
+        try {
+            Long.parseLong(text());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public long longValue() {
+        if (digitCount > 0 && digitCount <= 18) {
+            return negative ? -digits : digits;
+        }
+        return Long.parseLong(text());
+    }
+
+    public BigInteger bigIntegerValue() {
+        return new BigInteger(text());
+    }
+
+    /**
+     * The value of the decimal last scanned. With at most 15 digits and 22 decimals, both the
+     * digits and the power of ten are exact doubles, so one division gives the correctly rounded
+     * value.
+     */
+    public double doubleValue() {
+        if (digitCount > 0 && digitCount <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+            double value = digits / POWERS_OF_TEN[fractionDigits];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(text());
+    }
+
+    private boolean is(int c, byte charClass) {
+        if (c < 0) {
+            return false;
+        }
+        if (c < CLASSES.length) {
+            return (CLASSES[c] & charClass) != 0;
+        }
+        if (source.isBytes()) {
+            // Bytes of UTF-8 sequences are not characters themselves. They are taken to be part
+            // of a symbol, so that symbols may contain letters outside of ASCII.
+            return (charClass & (SYMBOL_INITIAL | SYMBOL_SUBSEQUENT)) != 0;
+        }
+        return switch (charClass) {
+            case WHITESPACE -> Character.isWhitespace(c);
+            case DIGIT -> Character.isDigit(c);
+            case SYMBOL_INITIAL -> Character.isAlphabetic(c);
+            default -> Character.isAlphabetic(c) || Character.isDigit(c);
+        };
+    }
+
+    /**
+     * A lone + or - is a symbol, otherwise they start a number.
+     */
+    private boolean isInitialInSymbol(int c) {
+        if (c == '+' || c == '-') {
+            int next = source.peek(1);
+            return next == END || is(next, WHITESPACE);
+        }
+        return is(c, SYMBOL_INITIAL);
+    }
+
+    private int string() {
+        source.advance();
+        start = source.position();
+        source.mark();
+        int c = source.peek(0);
+        while (c != END && c != '"') {
+            source.advance();
+            c = source.peek(0);
+        }
+        if (c == '"') {
+            source.advance();
+            trailing = 1;
+        }
+        return STRING;
+    }
+
+    /**
+     * Numbers with a decimal point are inexact, whole numbers are exact. Up to 18 digits are
+     * collected in a long as they are scanned.
+     */
+    private int number() {
+        negative = source.peek(0) == '-';
+        if (negative) {
+            source.advance();
+        }
+        digits = 0;
+        digitCount = 0;
+        fractionDigits = 0;
+        boolean hasDecimalPoint = false;
+        int c = source.peek(0);
+        while (is(c, DIGIT) || (c == '.' && !hasDecimalPoint)) {
+            if (c == '.') {
+                hasDecimalPoint = true;
+            } else {
+                if (digitCount < 18) {
+                    digits = digits * 10 + Character.digit(c, 10);
+                }
+                digitCount++;
+                if (hasDecimalPoint) {
+                    fractionDigits++;
+                }
+            }
+            source.advance();
+            c = source.peek(0);
+        }
+        return hasDecimalPoint ? DECIMAL : INTEGER;
+    }
+
+    private int bool() {
+        source.advance();
+        int c = source.peek(0);
+        if (c == 't' || c == 'f') {
+            source.advance();
+            return BOOLEAN;
+        }
+        throw new IllegalArgumentException(
+            "Unexpected character: " + (c == END ? "end of input" : (char) c) + ". Position: "
+            + source.position() + ".");
+    }
+
+    /**
+     * Where the characters come from.
+     */
+    private interface Source {
+
+        /**
+         * The character {@code offset} characters ahead, or {@link #END} if the input ends
+         * before. An offset of -1 is the character just consumed.
+         */
+        int peek(int offset);
+
+        void advance();
+
+        int position();
+
+        /**
+         * Start the text of a token at the current character.
+         */
+        void mark();
+
+        /**
+         * The text from the mark up to the current character, leaving out the last
+         * {@code trailing} characters.
+         */
+        String text(int trailing);
+
+        /**
+         * Whether the characters are really the bytes of UTF-8 text.
+         */
+        boolean isBytes();
+
+        void close();
+    }
+
+    /**
+     * Characters of a sequence held in memory as a whole, such as a string.
+     */
+    private static final class CharSequenceSource implements Source {
+
+        private final CharSequence input;
+        private final int limit;
+        private int index;
+        private int mark;
+
+        CharSequenceSource(CharSequence input) {
+            this.input = input;
+            this.limit = input.length();
+        }
+
+        @Override
+        public int peek(int offset) {
+            int at = index + offset;
+            return at < limit ? input.charAt(at) : END;
+        }
+
+        @Override
+        public void advance() {
+            if (index < limit) {
+                index++;
+            }
+        }
+
+        @Override
+        public int position() {
+            return index;
+        }
+
+        @Override
+        public void mark() {
+            mark = index;
+        }
+
+        @Override
+        public String text(int trailing) {
+            return input.subSequence(mark, Math.max(index - trailing, mark)).toString();
+        }
+
+        @Override
+        public boolean isBytes() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Characters read into an array, which is a window onto the text of the reader. It is
+     * refilled as the characters are consumed, keeping the text of the current token.
+     */
+    private static final class CharSource implements Source {
+
+        private static final int BUFFER_SIZE = 8192;
+
+        private final Reader reader;
+        private char[] buffer;
+        private int index;
+        private int limit;
+        private boolean endOfInput;
+        private int mark;
+        // The position of buffer[0] in the input.
+        private int offset;
+
+        CharSource(Reader reader) {
+            this.reader = reader;
+            this.buffer = new char[BUFFER_SIZE];
+        }
+
+        @Override
+        public int peek(int offset) {
+            if (index + offset >= limit && !fill(offset + 1)) {
+                return END;
+            }
+            return buffer[index + offset];
+        }
+
+        @Override
+        public void advance() {
+            if (index < limit || fill(1)) {
+                index++;
+            }
+        }
+
+        @Override
+        public int position() {
+            return offset + index;
+        }
+
+        @Override
+        public void mark() {
+            mark = index;
+        }
+
+        @Override
+        public String text(int trailing) {
+            return new String(buffer, mark, Math.max(index - trailing - mark, 0));
+        }
+
+        @Override
+        public boolean isBytes() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Read until at least {@code count} characters are buffered, keeping the ones from the
+         * mark on.
+         */
+        private boolean fill(int count) {
+            if (endOfInput) {
+                return false;
+            }
+            int keep = Math.min(mark, index);
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+            offset += keep;
+            limit -= keep;
+            index -= keep;
+            mark -= keep;
+            try {
+                while (limit < index + count) {
+                    if (limit == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    int read = reader.read(buffer, limit, buffer.length - limit);
+                    if (read < 0) {
+                        endOfInput = true;
+                        return false;
+                    }
+                    limit += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Bytes of UTF-8 text. Everything outside of strings and symbols is ASCII, so the bytes can
+     * be looked at one by one; only the text of tokens is decoded.
+     */
+    private static final class ByteSource implements Source {
+
+        private final ByteBuffer bytes;
+        private final int limit;
+        private byte[] text = new byte[64];
+        private int index;
+        private int mark;
+
+        ByteSource(ByteBuffer bytes) {
+            this.bytes = bytes;
+            this.limit = bytes.limit();
+        }
+
+        @Override
+        public int peek(int offset) {
+            int at = index + offset;
+            return at < limit ? bytes.get(at) & 0xff : END;
+        }
+
+        @Override
+        public void advance() {
+            if (index < limit) {
+                index++;
+            }
+        }
+
+        @Override
+        public int position() {
+            return index;
+        }
+
+        @Override
+        public void mark() {
+            mark = index;
+        }
+
+        @Override
+        public String text(int trailing) {
+            int length = Math.max(index - trailing - mark, 0);
+            if (text.length < length) {
+                text = new byte[Math.max(length, 2 * text.length)];
+            }
+            bytes.get(mark, text, 0, length);
+            return new String(text, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean isBytes() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
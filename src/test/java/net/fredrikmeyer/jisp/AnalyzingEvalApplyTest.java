@@ -0,0 +1,243 @@
+package net.fredrikmeyer.jisp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
+import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.environment.Binding;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.Analyzer;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.Node;
+import net.fredrikmeyer.jisp.evaluator.Node.Application;
+import net.fredrikmeyer.jisp.evaluator.Node.GlobalReference;
+import net.fredrikmeyer.jisp.evaluator.Node.Lambda;
+import net.fredrikmeyer.jisp.evaluator.Node.LocalReference;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class AnalyzingEvalApplyTest {
+
+    @ParameterizedTest
+    @MethodSource("net.fredrikmeyer.jisp.EndToEndTests#expressions")
+    public void evaluatesLikeTheStandardEvaluator(String input, LispExpression expected) {
+        EvalApply evalApply = new AnalyzingEvalApply();
+
+        var res = evalApply.eval(parse(input), new StandardEnvironment());
+
+        assertThat(res).isEqualTo(expected);
+    }
+
+    @Test
+    public void lambdaBodyIsAnalyzedWithTheLambda() {
+        Node node = new Analyzer().analyze(parse("(lambda (x) (f x 1))"));
+
+        assertThat(node).isInstanceOf(Lambda.class);
+        assertThat(((Lambda) node).code()).isInstanceOf(Application.class);
+    }
+
+    @Test
+    public void variablesAreResolvedToFrameDepthAndIndex() {
+        Lambda outer = (Lambda) new Analyzer().analyze(
+            parse("(lambda (x) (lambda (y) (+ x y)))"));
+        Lambda inner = (Lambda) outer.code();
+
+        assertThat(inner.code()).isEqualTo(new Application(new GlobalReference("+", 2),
+            List.of(new LocalReference("x", 1, 0), new LocalReference("y", 0, 0)),
+            parse("(+ x y)")));
+    }
+
+    @Test
+    public void internalDefinitionsGetASlot() {
+        Lambda lambda = (Lambda) new Analyzer().analyze(
+            parse("(lambda (x) (begin (define y 2) (+ x y)))"));
+
+        assertThat(lambda.variables()).containsExactly("x", "y");
+        assertThat(new AnalyzingEvalApply().eval(
+            new LispList(parse("(lambda (x) (begin (define y 2) (+ x y)))"),
+                new NumberLiteral(1.0)), new StandardEnvironment()))
+            .isEqualTo(new NumberLiteral(3.0));
+    }
+
+    @Test
+    public void closuresShareTheirFrame() {
+        Environment environment = new StandardEnvironment();
+        EvalApply evalApply = new AnalyzingEvalApply();
+
+        evalApply.eval(parse("""
+            (define make-counter
+              (lambda (count)
+                (lambda ()
+                  (begin (set! count (+ count 1))
+                         count))))
+            """), environment);
+        evalApply.eval(parse("(define counter (make-counter 0))"), environment);
+        evalApply.eval(parse("(counter)"), environment);
+
+        assertThat(evalApply.eval(parse("(counter)"), environment))
+            .isEqualTo(new IntegerLiteral(2));
+    }
+
+    @Test
+    public void lambdasEvaluateToAnalyzedProcedures() {
+        Environment environment = new StandardEnvironment();
+        EvalApply evalApply = new AnalyzingEvalApply();
+
+        evalApply.eval(parse("(defn square (x) (* x x))"), environment);
+
+        var square = environment.lookUpVariable("square");
+        assertThat(square).isInstanceOf(AnalyzedProcedure.class);
+        assertThat(evalApply.apply((AnalyzedProcedure) square, List.of(new NumberLiteral(3.0))))
+            .isEqualTo(new NumberLiteral(9.0));
+    }
+
+    @Test
+    public void quotedFormsAreNotAnalyzed() {
+        var res = new AnalyzingEvalApply().eval(parse("'(lambda (x) x)"),
+            new StandardEnvironment());
+
+        assertThat(res).isEqualTo(new LispList(LispSymbol.of("lambda"),
+            new LispList(LispSymbol.of("x")), LispSymbol.of("x")));
+    }
+
+    @Test
+    public void tailCallsRunInConstantStack() {
+        var res = new AnalyzingEvalApply().eval(parse("""
+            (begin
+              (define is-even (lambda (n)
+                                (if (= n 0) #t (is-odd (- n 1)))))
+              (define is-odd (lambda (n)
+                               (if (= n 0) #f (is-even (- n 1)))))
+              (is-even 1000000))
+            """), new StandardEnvironment());
+
+        assertThat(res).isEqualTo(new BoolValue(true));
+    }
+
+    @Test
+    public void nonTailRecursionStillOverflows() {
+        var expression = parse("((lambda (X) (+ 1 (X X))) (lambda (X) (+ 1 (X X))))");
+
+        assertThrows(StackOverflowError.class,
+            () -> new AnalyzingEvalApply().eval(expression, new StandardEnvironment()));
+    }
+
+    @Test
+    public void cachedGlobalsSeeRedefinitions() {
+        var evalApply = new AnalyzingEvalApply();
+        var env = new StandardEnvironment();
+        evalApply.eval(parse("(define n 1)"), env);
+        evalApply.eval(parse("(defn f (x) (+ (abs x) n))"), env);
+        var call = evalApply.analyze(parse("(f -2)"));
+
+        assertThat(evalApply.execute(call, env)).isEqualTo(new IntegerLiteral(3));
+        evalApply.eval(parse("(set! n 10)"), env);
+        assertThat(evalApply.execute(call, env)).isEqualTo(new IntegerLiteral(12));
+        // Shadows the built-in abs the call site has cached.
+        evalApply.eval(parse("(defn abs (x) x)"), env);
+        assertThat(evalApply.execute(call, env)).isEqualTo(new IntegerLiteral(8));
+    }
+
+    @Test
+    public void cachedGlobalsAreLookedUpPerEnvironment() {
+        var evalApply = new AnalyzingEvalApply();
+        var first = new StandardEnvironment();
+        var second = new StandardEnvironment();
+        evalApply.eval(parse("(define x 1)"), first);
+        evalApply.eval(parse("(define x 2)"), second);
+        var reference = evalApply.analyze(parse("x"));
+
+        assertThat(evalApply.execute(reference, first)).isEqualTo(new IntegerLiteral(1));
+        assertThat(evalApply.execute(reference, second)).isEqualTo(new IntegerLiteral(2));
+        assertThat(evalApply.execute(reference, first)).isEqualTo(new IntegerLiteral(1));
+    }
+
+    @Test
+    public void cachedGlobalsAreNotLookedUpAgain() {
+        var evalApply = new AnalyzingEvalApply();
+        var env = new StandardEnvironment() {
+            int lookUps;
+
+            @Override
+            public Binding binding(String name) {
+                lookUps++;
+                return super.binding(name);
+            }
+        };
+        evalApply.eval(parse("(define x 1)"), env);
+        var reference = evalApply.analyze(parse("(+ x x)"));
+
+        for (int i = 0; i < 10; i++) {
+            evalApply.execute(reference, env);
+        }
+
+        // Once for each of +, x and x.
+        assertThat(env.lookUps).isEqualTo(3);
+    }
+
+    @Test
+    public void builtInsAreCalledThroughTheirArity() {
+        var evalApply = new AnalyzingEvalApply();
+        Environment environment = new StandardEnvironment();
+        environment.setVariable("pair", new Procedure.BuiltInProcedure("pair") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                return new IntegerLiteral(values.length);
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                return new LispList(a, b);
+            }
+        });
+
+        assertThat(evalApply.eval(parse("(pair 1 (pair 2 3))"), environment))
+            .isEqualTo(parse("(1 (2 3))"));
+        assertThat(evalApply.eval(parse("(pair 1 2 3 4)"), environment))
+            .isEqualTo(new IntegerLiteral(4));
+    }
+
+    @Test
+    public void definingOtherNamesKeepsGlobalsCached() {
+        var evalApply = new AnalyzingEvalApply();
+        var env = new StandardEnvironment() {
+            int lookUps;
+
+            @Override
+            public Binding binding(String name) {
+                lookUps++;
+                return super.binding(name);
+            }
+        };
+        evalApply.eval(parse("(define x 1)"), env);
+        var reference = evalApply.analyze(parse("(+ x x)"));
+
+        for (int i = 0; i < 10; i++) {
+            evalApply.execute(reference, env);
+            evalApply.eval(parse("(define y" + i + " 1)"), new StandardEnvironment());
+            evalApply.eval(parse("(define z" + i + " 1)"), env);
+        }
+
+        assertThat(env.lookUps).isEqualTo(3);
+        // Defining x where it was not before may shadow it, so both references to it look it
+        // up again.
+        evalApply.eval(parse("(define x 2)"), new StandardEnvironment());
+        assertThat(evalApply.execute(reference, env)).isEqualTo(new IntegerLiteral(2));
+        assertThat(env.lookUps).isEqualTo(5);
+    }
+
+    private static LispExpression parse(String input) {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(input));
+    }
+}
@@ -0,0 +1,106 @@
+package net.fredrikmeyer.jisp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.compiler.CompiledProcedure;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.CompilingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class CompilerTest {
+
+    private EvalApply evalApply;
+    private Environment environment;
+
+    @BeforeEach
+    void setUp() {
+        evalApply = new CompilingEvalApply();
+        environment = new StandardEnvironment();
+    }
+
+    @ParameterizedTest
+    @MethodSource("net.fredrikmeyer.jisp.EndToEndTests#expressions")
+    public void evaluatesLikeTheStandardEvaluator(String input, LispExpression expected) {
+        assertThat(eval(input)).isEqualTo(expected);
+    }
+
+    @Test
+    public void definedProceduresAreCompiled() {
+        eval("(defn fib (n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))");
+
+        assertThat(environment.lookUpVariable("fib")).isInstanceOf(CompiledProcedure.class);
+        assertThat(eval("(fib 20)")).isEqualTo(new IntegerLiteral(6765));
+    }
+
+    @Test
+    public void selfTailCallsRunInConstantStack() {
+        eval("(defn count-down (n acc) (if (= n 0) acc (count-down (- n 1) (+ acc 1))))");
+
+        assertThat(eval("(count-down 1000000 0)")).isEqualTo(new IntegerLiteral(1000000));
+    }
+
+    @Test
+    public void mutualTailCallsRunInConstantStack() {
+        eval("(defn is-even (n) (if (= n 0) #t (is-odd (- n 1))))");
+        eval("(defn is-odd (n) (if (= n 0) #f (is-even (- n 1))))");
+
+        assertThat(eval("(is-even 1000000)")).isEqualTo(new BoolValue(true));
+    }
+
+    @Test
+    public void proceduresTheCompilerCannotHandleAreInterpreted() {
+        eval("(defn f (x) (begin (define y 2) (+ x y)))");
+        eval("(defn g (x) (begin (set! x 3) x))");
+        eval("(defn adder (x) (lambda (y) (+ x y)))");
+
+        assertThat(environment.lookUpVariable("f")).isInstanceOf(AnalyzedProcedure.class);
+        assertThat(environment.lookUpVariable("g")).isInstanceOf(AnalyzedProcedure.class);
+        assertThat(environment.lookUpVariable("adder")).isInstanceOf(AnalyzedProcedure.class);
+        assertThat(eval("(f 1)")).isEqualTo(new IntegerLiteral(3));
+        assertThat(eval("(g 1)")).isEqualTo(new IntegerLiteral(3));
+        assertThat(eval("((adder 1) 2)")).isEqualTo(new IntegerLiteral(3));
+    }
+
+    @Test
+    public void wrongNumberOfArgumentsIsLeftToTheInterpreter() {
+        eval("(defn f (x y) (+ x y))");
+
+        assertThrows(RuntimeException.class, () -> eval("(f 1 2 3)"));
+    }
+
+    @Test
+    public void redefinedBuiltInsAreCalled() {
+        eval("(defn f (x y) (+ x y))");
+        eval("(define + (lambda (a b) (* a b)))");
+
+        assertThat(eval("(f 3 4)")).isEqualTo(new IntegerLiteral(12));
+    }
+
+    @Test
+    public void compiledProceduresCanBeCalledFromOtherEvaluators() {
+        eval("(defn square (x) (* x x))");
+
+        assertThat(new StandardEvalApply().eval(parse("(square 5)"), environment))
+            .isEqualTo(new IntegerLiteral(25));
+    }
+
+    private LispExpression eval(String input) {
+        return evalApply.eval(parse(input), environment);
+    }
+
+    private static LispExpression parse(String input) {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(input));
+    }
+}
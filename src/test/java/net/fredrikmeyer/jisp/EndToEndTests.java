@@ -7,11 +7,15 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.math.BigInteger;
 import java.util.List;
 import java.util.stream.Stream;
 import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
 import net.fredrikmeyer.jisp.LispExpression.Ok;
+import net.fredrikmeyer.jisp.LispLiteral.BigIntegerLiteral;
 import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.LispNumber;
 import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
 import net.fredrikmeyer.jisp.environment.Environment;
 import net.fredrikmeyer.jisp.environment.StandardEnvironment;
@@ -48,36 +52,56 @@ public class EndToEndTests {
         assertThat(res).isEqualTo(expected);
     }
 
-    private static Stream<Arguments> expressions() {
+    static Stream<Arguments> expressions() {
         return Stream.of(
-            Arguments.of("(+ (* 2 3))", new NumberLiteral(6.0)),
-            Arguments.of("(+ 2 (* 2 3))", new NumberLiteral(8.0)),
-            Arguments.of("((lambda (x) (+ 1 x)) 1)", new NumberLiteral(2.)),
+            Arguments.of("(+ (* 2 3))", new IntegerLiteral(6)),
+            Arguments.of("(+ 2 (* 2 3))", new IntegerLiteral(8)),
+            Arguments.of("((lambda (x) (+ 1 x)) 1)", new IntegerLiteral(2)),
             Arguments.of("(define f (lambda (x) (+ x 1)))", new Ok()),
-            Arguments.of("(begin (define f (lambda (x) (+ x 1))) (f 2))", new NumberLiteral(3.0)),
+            Arguments.of("(begin (define f (lambda (x) (+ x 1))) (f 2))", new IntegerLiteral(3)),
             Arguments.of("(< 5 4 3)", new BoolValue(false)),
             Arguments.of("(< 1 2 3)", new BoolValue(true)),
-            Arguments.of("(- 5 2)", new NumberLiteral(3.0)),
-            Arguments.of("(- 5 3 1)", new NumberLiteral(1.0)),
-            Arguments.of("(* -5 -5)", new NumberLiteral(25.0)),
-            Arguments.of("(if (= 3 3) 1 2)", new NumberLiteral(1.0)),
-            Arguments.of("(if (= 3 4) 1 2)", new NumberLiteral(2.0)),
+            Arguments.of("(- 5 2)", new IntegerLiteral(3)),
+            Arguments.of("(- 5 3 1)", new IntegerLiteral(1)),
+            Arguments.of("(* -5 -5)", new IntegerLiteral(25)),
+            Arguments.of("(if (= 3 3) 1 2)", new IntegerLiteral(1)),
+            Arguments.of("(if (= 3 4) 1 2)", new IntegerLiteral(2)),
             Arguments.of("(< 5 6 3 2)", new BoolValue(false)),
             Arguments.of("(< 9999 2)", new BoolValue(false)),
             Arguments.of("(/ 5 2)", new NumberLiteral(2.5)),
-            Arguments.of("(% 10 3)", new NumberLiteral(1.0)),
-            Arguments.of("(% 10 2)", new NumberLiteral(0.0)),
-            Arguments.of("(% -10 3)", new NumberLiteral(-1.0)),
+            Arguments.of("(+ 4)", new IntegerLiteral(4)),
+            Arguments.of("(+ 1 2 3 4)", new IntegerLiteral(10)),
+            Arguments.of("(* 2 3 4)", new IntegerLiteral(24)),
+            Arguments.of("(= 2 2 2)", new BoolValue(true)),
+            Arguments.of("(= 2 2 3)", new BoolValue(false)),
+            Arguments.of("(abs -2.5)", new NumberLiteral(2.5)),
+            Arguments.of("(% 10 3)", new IntegerLiteral(1)),
+            Arguments.of("(% 10 2)", new IntegerLiteral(0)),
+            Arguments.of("(% -10 3)", new IntegerLiteral(-1)),
             Arguments.of("(% 10.5 3.2)", new NumberLiteral(10.5 % 3.2)),
-            Arguments.of("(if #t 1 2)", new NumberLiteral(1.0)),
-            Arguments.of("(begin (define a 2) (set! a 3) a)", new NumberLiteral(3.0)),
-            Arguments.of("(begin (define a 2) (set! a (+ a 1)) a)", new NumberLiteral(3.0)),
+            Arguments.of("(/ 6 3)", new IntegerLiteral(2)),
+            Arguments.of("(+ 1 2.5)", new NumberLiteral(3.5)),
+            Arguments.of("(* 2 3.0)", new NumberLiteral(6.0)),
+            Arguments.of("(= 3 3.0)", new BoolValue(true)),
+            Arguments.of("(< 2 2.5 3)", new BoolValue(true)),
+            Arguments.of("(+ 9223372036854775807 1)",
+                new BigIntegerLiteral(new BigInteger("9223372036854775808"))),
+            Arguments.of("(- 9223372036854775808 1)", new IntegerLiteral(Long.MAX_VALUE)),
+            Arguments.of("(* 4294967296 4294967296)",
+                new BigIntegerLiteral(BigInteger.ONE.shiftLeft(64))),
+            Arguments.of("""
+                (begin (define fact (lambda (n) (if (= n 0) 1 (* n (fact (- n 1))))))
+                       (fact 25))
+                """, new BigIntegerLiteral(new BigInteger("15511210043330985984000000"))),
+            Arguments.of("(if #t 1 2)", new IntegerLiteral(1)),
+            Arguments.of("(begin (define a 2) (set! a 3) a)", new IntegerLiteral(3)),
+            Arguments.of("(begin (define a 2) (set! a (+ a 1)) a)", new IntegerLiteral(3)),
             Arguments.of("""
                 (begin (define a 2)
-                       ((lambda (a) a) 3))""", new NumberLiteral(3.0)),
+                       ((lambda (a) a) 3))""", new IntegerLiteral(3)),
             Arguments.of("(begin 1 '(1 2))",
-                new LispList(new NumberLiteral(1.0), new NumberLiteral(2.0))),
-            Arguments.of("'(1 2)", new LispList(new NumberLiteral(1.0), new NumberLiteral(2.0))),
+                new LispList(new IntegerLiteral(1), new IntegerLiteral(2))),
+            Arguments.of("'(1 2)", new LispList(new IntegerLiteral(1), new IntegerLiteral(2))),
             Arguments.of("""
                 (begin (define f (lambda (n)
                                 (if (= n 0)
@@ -86,7 +110,7 @@ public class EndToEndTests {
                                          1
                                          (+ (f (- n 1)) (f (- n 2)))))))
                        (f 10))
-                """, new NumberLiteral(89.0)),
+                """, new IntegerLiteral(89)),
             Arguments.of("""
                 (begin
                   (define is-even (lambda (n)
@@ -95,25 +119,37 @@ public class EndToEndTests {
                                  (if (= n 0) #f (is-even (- n 1)))))
                   (list (is-even 20) (is-odd 20)))
                 """, new LispList(new BoolValue(true), new BoolValue(false))),
+            Arguments.of("(cons 1 '(2 3))",
+                new LispList(new IntegerLiteral(1), new IntegerLiteral(2), new IntegerLiteral(3))),
+            Arguments.of("(car '(1 2))", new IntegerLiteral(1)),
+            Arguments.of("(cdr '(1 2 3))", new LispList(new IntegerLiteral(2), new IntegerLiteral(3))),
+            Arguments.of("(null? '())", new BoolValue(true)),
+            Arguments.of("(null? (cdr (list 1)))", new BoolValue(true)),
+            Arguments.of("(null? '(1))", new BoolValue(false)),
+            Arguments.of("""
+                (begin
+                  (defn sum (xs) (if (null? xs) 0 (+ (car xs) (sum (cdr xs)))))
+                  (sum '(1 2 3 4)))
+                """, new IntegerLiteral(10)),
             // Test map function with a built-in procedure
             Arguments.of("""
                 (map abs '(-1 2 -3 4 -5))
                 """, new LispList(
-                    new NumberLiteral(1.0),
-                    new NumberLiteral(2.0),
-                    new NumberLiteral(3.0),
-                    new NumberLiteral(4.0),
-                    new NumberLiteral(5.0)
+                    new IntegerLiteral(1),
+                    new IntegerLiteral(2),
+                    new IntegerLiteral(3),
+                    new IntegerLiteral(4),
+                    new IntegerLiteral(5)
                 )),
             // Test map function with a lambda
             Arguments.of("""
                 (map (lambda (x) (* x x)) '(1 2 3 4 5))
                 """, new LispList(
-                    new NumberLiteral(1.0),
-                    new NumberLiteral(4.0),
-                    new NumberLiteral(9.0),
-                    new NumberLiteral(16.0),
-                    new NumberLiteral(25.0)
+                    new IntegerLiteral(1),
+                    new IntegerLiteral(4),
+                    new IntegerLiteral(9),
+                    new IntegerLiteral(16),
+                    new IntegerLiteral(25)
                 )),
             // Test filter function with a built-in predicate
             Arguments.of("""
@@ -121,8 +157,8 @@ public class EndToEndTests {
                   (define positive? (lambda (x) (< 0 x)))
                   (filter positive? '(-2 -1 0 1 2)))
                 """, new LispList(
-                    new NumberLiteral(1.0),
-                    new NumberLiteral(2.0)
+                    new IntegerLiteral(1),
+                    new IntegerLiteral(2)
                 )),
             // Test filter function with a lambda predicate for even numbers using modulo
             Arguments.of("""
@@ -131,9 +167,9 @@ public class EndToEndTests {
                     (= (% x 2) 0)))
                   (filter is-even? '(1 2 3 4 5 6)))
                 """, new LispList(
-                    new NumberLiteral(2.0),
-                    new NumberLiteral(4.0),
-                    new NumberLiteral(6.0)
+                    new IntegerLiteral(2),
+                    new IntegerLiteral(4),
+                    new IntegerLiteral(6)
                 ))
         );
     }
@@ -170,7 +206,7 @@ public class EndToEndTests {
 
         LispExpression res = evalApply.eval(parsed, environment);
 
-        assertThat(((NumberLiteral) res).value())
+        assertThat(((LispNumber) res).doubleValue())
             .isCloseTo(1.4142224,
                 Offset.offset(0.001));
     }
@@ -192,7 +228,7 @@ public class EndToEndTests {
 
         LispExpression res = evalApply.eval(parsed, environment);
 
-        assertThat(((NumberLiteral) res).value())
+        assertThat(((LispNumber) res).doubleValue())
             .isCloseTo(80,
                 Offset.offset(0.001));
     }
@@ -203,12 +239,33 @@ public class EndToEndTests {
         Parser parser = new ParserImpl();
         EvalApply evalApply = new StandardEvalApply();
 
+        // The recursive call is an argument to +, so it is not in tail position.
         LispExpression expression = parser.parse(
-            tokenizer.tokenize("((lambda (X) (X X)) (lambda (X) (X X)))"));
+            tokenizer.tokenize("((lambda (X) (+ 1 (X X))) (lambda (X) (+ 1 (X X))))"));
 
         assertThrows(StackOverflowError.class, () -> evalApply.eval(expression, new StandardEnvironment()));
     }
 
+    @Test
+    void tailCallsRunInConstantStack() {
+        Tokenizer tokenizer = new TokenizerImpl();
+        Parser parser = new ParserImpl();
+        EvalApply evalApply = new StandardEvalApply();
+
+        LispExpression expression = parser.parse(tokenizer.tokenize("""
+            (begin
+              (defn count-down (n)
+                (if (= n 0)
+                    "done"
+                    (count-down (- n 1))))
+              (count-down 1000000))
+            """));
+
+        var res = evalApply.eval(expression, new StandardEnvironment());
+
+        assertThat(res).isEqualTo(new LispLiteral.StringLiteral("done"));
+    }
+
     private @NotNull String readFromFile(String fileName) throws IOException {
         ClassLoader classloader = getClass().getClassLoader();
         InputStream inputStream = classloader.getResourceAsStream("files/" + fileName);
@@ -0,0 +1,48 @@
+package net.fredrikmeyer.jisp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.environment.Frame;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import org.junit.jupiter.api.Test;
+
+class FrameTest {
+
+    @Test
+    public void canLookUpSlotsByName() {
+        StandardEnvironment parent = new StandardEnvironment();
+        parent.setVariable("x", new NumberLiteral(1.0));
+
+        Frame frame = new Frame(List.of("y"), new LispExpression[]{new NumberLiteral(2.0)},
+            parent);
+
+        assertThat(frame.lookUpVariable("y")).isEqualTo(new NumberLiteral(2.0));
+        assertThat(frame.lookUpVariable("x")).isEqualTo(new NumberLiteral(1.0));
+        assertThat(frame.lookUpVariable("z")).isNull();
+    }
+
+    @Test
+    public void unassignedSlotsFallBackToParent() {
+        StandardEnvironment parent = new StandardEnvironment();
+        parent.setVariable("y", new NumberLiteral(1.0));
+
+        Frame frame = new Frame(List.of("y"), new LispExpression[1], parent);
+
+        assertThat(frame.lookUpVariable("y")).isEqualTo(new NumberLiteral(1.0));
+
+        frame.setVariable("y", new NumberLiteral(2.0));
+
+        assertThat(frame.get(0)).isEqualTo(new NumberLiteral(2.0));
+    }
+
+    @Test
+    public void cannotSetVariablesWithoutSlot() {
+        Frame frame = new Frame(List.of(), new LispExpression[0], new StandardEnvironment());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> frame.setVariable("x", new NumberLiteral(1.0)));
+    }
+}
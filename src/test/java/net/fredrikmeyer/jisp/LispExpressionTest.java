@@ -10,7 +10,7 @@ class LispExpressionTest {
 
     @Test
     public void stringifiesNicely() {
-        String expression = new LispList(List.of(new LispSymbol("+"),
+        String expression = new LispList(List.of(LispSymbol.of("+"),
                 new LispLiteral.NumberLiteral(1.),
                 new LispLiteral.NumberLiteral(2.))).toString();
 
@@ -19,10 +19,31 @@ class LispExpressionTest {
 
     @Test
     public void stringsStringifiesNicely() {
-        String expression = new LispList(List.of(new LispSymbol("+"),
+        String expression = new LispList(List.of(LispSymbol.of("+"),
             new LispLiteral.StringLiteral("hei"),
             new LispLiteral.NumberLiteral(2.))).toString();
 
         assertThat(expression).isEqualTo("(+ \"hei\" 2.0)");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void consSharesTheRestOfTheList() {
+        LispList rest = new LispList(List.of(LispSymbol.of("b"), LispSymbol.of("c")));
+        LispList list = LispList.cons(LispSymbol.of("a"), rest);
+
+        assertThat(list.cdr()).isSameAs(rest);
+        assertThat(list.length()).isEqualTo(3);
+        assertThat(list).isEqualTo(new LispList(
+            List.of(LispSymbol.of("a"), LispSymbol.of("b"), LispSymbol.of("c"))));
+        assertThat(list.hashCode()).isEqualTo(list.elements().hashCode());
+        assertThat(list.cdr().cdr().cdr().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void smallWholeNumbersAreCached() {
+        assertThat(LispLiteral.NumberLiteral.of(3.0)).isSameAs(LispLiteral.NumberLiteral.of(3.0));
+        assertThat(LispLiteral.NumberLiteral.of(3.5)).isEqualTo(new LispLiteral.NumberLiteral(3.5));
+        assertThat(LispLiteral.NumberLiteral.of(-0.0)).isEqualTo(new LispLiteral.NumberLiteral(-0.0));
+        assertThat(LispLiteral.NumberLiteral.of(1e10)).isEqualTo(new LispLiteral.NumberLiteral(1e10));
+    }
+}
@@ -0,0 +1,133 @@
+package net.fredrikmeyer.jisp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
+import net.fredrikmeyer.jisp.LispLiteral.BigIntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.BoolValue;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.StringLiteral;
+import net.fredrikmeyer.jisp.parser.InternTable;
+import net.fredrikmeyer.jisp.parser.LispReader;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenStream;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LispReaderTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "(+ 1 2)",
+        "(define (f x) (if (< x 1.5) \"small\" (list #t #f 'x)))",
+        "(begin 1 (begin 2 '(1 2)))",
+        "(lambda (x) (+ 1 x -2 -0.25))",
+        "(())",
+        "(list 100000000000000000000 -9223372036854775808)"})
+    void readsLikeTheParser(String source) {
+        assertThat(LispReader.parse(source))
+            .isEqualTo(new ParserImpl().parse(new TokenizerImpl().tokenize(source)));
+    }
+
+    @Test
+    void readsAtoms() {
+        assertThat(LispReader.parse("define1")).isSameAs(LispSymbol.of("define1"));
+        assertThat(LispReader.parse("\"på\"")).isEqualTo(new StringLiteral("på"));
+        assertThat(LispReader.parse("42")).isEqualTo(new IntegerLiteral(42));
+        assertThat(LispReader.parse("2.5")).isEqualTo(new NumberLiteral(2.5));
+        assertThat(LispReader.parse("100000000000000000000"))
+            .isEqualTo(new BigIntegerLiteral(BigInteger.TEN.pow(20)));
+        assertThat(LispReader.parse("#t")).isEqualTo(BoolValue.of(true));
+    }
+
+    @Test
+    void readsQuotes() {
+        var quote = LispSymbol.of("quote");
+
+        assertThat(LispReader.parse("'a")).isEqualTo(new LispList(quote, LispSymbol.of("a")));
+        assertThat(LispReader.parse("''(1)")).isEqualTo(new LispList(quote,
+            new LispList(quote, new LispList(new IntegerLiteral(1)))));
+    }
+
+    @Test
+    void readsOneExpressionAtATime() {
+        var reader = new LispReader(new StringReader("(define x 1) x\n'(a b)"));
+
+        assertThat(reader.read()).isEqualTo(new LispList(LispSymbol.of("define"),
+            LispSymbol.of("x"), new IntegerLiteral(1)));
+        assertThat(reader.read()).isEqualTo(LispSymbol.of("x"));
+        assertThat(reader.read()).isEqualTo(new LispList(LispSymbol.of("quote"),
+            new LispList(LispSymbol.of("a"), LispSymbol.of("b"))));
+        assertThat(reader.read()).isNull();
+    }
+
+    @Test
+    void readsDeeplyNestedExpressions() {
+        int depth = 100_000;
+        LispExpression expression = LispReader.parse("(".repeat(depth) + ")".repeat(depth));
+
+        for (int i = 1; i < depth; i++) {
+            expression = ((LispList) expression).car();
+        }
+        assertThat(expression).isEqualTo(new LispList());
+    }
+
+    @Test
+    void quotedDataIsSharedThroughAnInternTable() {
+        var reader = new LispReader(TokenStream.of(
+            "'((1 \"a\") (1 \"a\") (2 (1 \"a\"))) '(2 (1 \"a\")) (f '(1 \"a\"))"),
+            new InternTable());
+
+        var data = (LispList) ((LispList) reader.read()).cadr();
+        var more = (LispList) ((LispList) reader.read()).cadr();
+        var call = (LispList) reader.read();
+
+        assertThat(data.car()).isSameAs(data.cadr());
+        assertThat(((LispList) data.caddr()).cadr()).isSameAs(data.car());
+        assertThat(more).isSameAs(data.caddr());
+        assertThat(((LispList) call.cadr()).cadr()).isSameAs(data.car());
+        // Code is not interned.
+        assertThat(call).isEqualTo(LispReader.parse("(f '(1 \"a\"))"));
+    }
+
+    @Test
+    void literalsAreSharedThroughAnInternTable() {
+        var table = new InternTable();
+        var first = new LispReader(TokenStream.of("(f \"a\" 2.5 100000000000000000000)"), table)
+            .read();
+        var second = new LispReader(TokenStream.of("(g \"a\" 2.5 100000000000000000000)"), table)
+            .read();
+
+        for (int i = 1; i < 4; i++) {
+            assertThat(((LispList) second).elements().get(i))
+                .isSameAs(((LispList) first).elements().get(i));
+        }
+        assertThat(first).isEqualTo(LispReader.parse("(f \"a\" 2.5 100000000000000000000)"));
+    }
+
+    @Test
+    void quotedDataReadsAsWithoutAnInternTable() {
+        String source = "(list '() ''(a (b \"c\" 1.5) ()) '(1 (1) ((1))))";
+
+        assertThat(new LispReader(TokenStream.of(source), new InternTable()).read())
+            .isEqualTo(LispReader.parse(source));
+    }
+
+    @Test
+    void malformedSourcesFail() {
+        assertThat(assertThrows(RuntimeException.class, () -> LispReader.parse("(\"hei\"))")))
+            .hasMessageContaining("Mismatched parentheses.");
+        assertThat(assertThrows(RuntimeException.class, () -> LispReader.parse("(define x")))
+            .hasMessageContaining("Unexpected end of input.");
+        assertThat(assertThrows(RuntimeException.class, () -> LispReader.parse("  ")))
+            .hasMessage("No tokens parsed.");
+        assertThat(assertThrows(RuntimeException.class, () -> LispReader.parse("(f) (g)")))
+            .hasMessageContaining("Expected one expression");
+    }
+}
@@ -0,0 +1,90 @@
+package net.fredrikmeyer.jisp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import net.fredrikmeyer.jisp.LispExpression.Ok;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+import net.fredrikmeyer.jisp.parser.InternTable;
+import org.junit.jupiter.api.Test;
+
+class LoaderTest {
+
+    @Test
+    void loadsAFileWithSeveralTopLevelForms() throws Exception {
+        Path file = Path.of(getClass().getClassLoader().getResource("files/make-account.scm")
+            .toURI());
+
+        var res = Loader.load(file, new StandardEvalApply(), new StandardEnvironment());
+
+        assertThat(res).isEqualTo(new NumberLiteral(80.0));
+    }
+
+    @Test
+    void formsAreEvaluatedInOrderInTheSameEnvironment() {
+        Environment environment = new StandardEnvironment();
+
+        var res = Loader.load(new StringReader("""
+            (define x 1)
+            (defn inc (n) (+ n 1))
+            (define y (inc x))
+            (inc y)
+            """), new AnalyzingEvalApply(), environment);
+
+        assertThat(res).isEqualTo(new IntegerLiteral(3));
+        assertThat(environment.lookUpVariable("y")).isEqualTo(new IntegerLiteral(2));
+    }
+
+    @Test
+    void formsBeforeAnErrorHaveBeenEvaluated() {
+        Environment environment = new StandardEnvironment();
+
+        assertThrows(RuntimeException.class, () -> Loader.load(
+            new StringReader("(define x 1) (define y"), new AnalyzingEvalApply(), environment));
+
+        assertThat(environment.lookUpVariable("x")).isEqualTo(new IntegerLiteral(1));
+    }
+
+    @Test
+    void dataLoadedThroughAnInternTableIsShared() {
+        Environment environment = new StandardEnvironment();
+        var evalApply = new AnalyzingEvalApply();
+        var table = new InternTable();
+
+        Loader.load(new StringReader("""
+            (define a '(1 "two" (3.0)))
+            (define b '(1 "two" (3.0)))
+            """), evalApply, environment, table);
+        Loader.load(new StringReader("(define c '(1 \"two\" (3.0)))"), evalApply, environment,
+            table);
+
+        var a = environment.lookUpVariable("a");
+        assertThat(environment.lookUpVariable("b")).isSameAs(a);
+        assertThat(environment.lookUpVariable("c")).isSameAs(a);
+    }
+
+    @Test
+    void dataIsNotInternedByDefault() {
+        Environment environment = new StandardEnvironment();
+
+        Loader.load(new StringReader("(define a '(1 2)) (define b '(1 2))"),
+            new AnalyzingEvalApply(), environment);
+
+        assertThat(environment.lookUpVariable("b"))
+            .isEqualTo(environment.lookUpVariable("a"))
+            .isNotSameAs(environment.lookUpVariable("a"));
+    }
+
+    @Test
+    void emptySourceIsOk() {
+        assertThat(Loader.load(new StringReader(" "), new AnalyzingEvalApply(),
+            new StandardEnvironment())).isEqualTo(new Ok());
+    }
+}
@@ -0,0 +1,152 @@
+package net.fredrikmeyer.jisp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.MemoizedProcedure;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.CompilingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+import net.fredrikmeyer.jisp.parser.LispReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class MemoizedProcedureTest {
+
+    private static LispExpression eval(EvalApply evalApply, Environment environment,
+                                       String source) {
+        return evalApply.eval(LispReader.parse(source), environment);
+    }
+
+    static List<EvalApply> evaluators() {
+        return List.of(new StandardEvalApply(), new AnalyzingEvalApply(),
+            new CompilingEvalApply());
+    }
+
+    @ParameterizedTest
+    @MethodSource("evaluators")
+    void recursiveCallsAreMemoized(EvalApply evalApply) {
+        var environment = new StandardEnvironment();
+        eval(evalApply, environment,
+            "(defn-memo fib (n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))");
+
+        // Exponential without memoization.
+        assertThat(eval(evalApply, environment, "(fib 90)"))
+            .isEqualTo(new IntegerLiteral(2880067194370816120L));
+
+        var fib = (MemoizedProcedure) environment.lookUpVariable("fib");
+        assertThat(fib.misses()).isEqualTo(91);
+        assertThat(fib.hits()).isEqualTo(88);
+        assertThat(fib.size()).isEqualTo(91);
+    }
+
+    @ParameterizedTest
+    @MethodSource("evaluators")
+    void defnMemoIgnoresRedefinedMemoize(EvalApply evalApply) {
+        var environment = new StandardEnvironment();
+        eval(evalApply, environment, "(defn memoize (f) 0)");
+        eval(evalApply, environment, "(defn-memo square (x) (* x x))");
+
+        assertThat(eval(evalApply, environment, "(square 3)")).isEqualTo(new IntegerLiteral(9));
+        assertThat(environment.lookUpVariable("square")).isInstanceOf(MemoizedProcedure.class);
+    }
+
+    @Test
+    void argumentsAreComparedByValue() {
+        var evalApply = new AnalyzingEvalApply();
+        var environment = new StandardEnvironment();
+        eval(evalApply, environment, "(define calls 0)");
+        eval(evalApply, environment,
+            "(define count (memoize (lambda (xs y) (begin (set! calls (+ calls 1)) y))))");
+
+        eval(evalApply, environment, "(count '(1 2) 3)");
+        eval(evalApply, environment, "(count (list 1 2) 3)");
+        eval(evalApply, environment, "(count '(1 2) 4)");
+
+        assertThat(environment.lookUpVariable("calls")).isEqualTo(new IntegerLiteral(2));
+    }
+
+    @Test
+    void procedureArgumentsAreComparedByIdentity() {
+        // The standard evaluator makes procedures that are equal records when they have the same
+        // arguments and body in the same environment.
+        var evalApply = new StandardEvalApply();
+        var environment = new StandardEnvironment();
+        eval(evalApply, environment, "(define apply-to-2 (memoize (lambda (f) (f 2))))");
+        eval(evalApply, environment, "(define g (lambda (x) x))");
+        eval(evalApply, environment, "(define h (lambda (x) x))");
+        var applyTo2 = (MemoizedProcedure) environment.lookUpVariable("apply-to-2");
+
+        assertThat(eval(evalApply, environment, "(apply-to-2 g)")).isEqualTo(new IntegerLiteral(2));
+        eval(evalApply, environment, "(apply-to-2 g)");
+        eval(evalApply, environment, "(apply-to-2 h)");
+
+        assertThat(applyTo2.hits()).isEqualTo(1);
+        assertThat(applyTo2.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void leastRecentlyUsedResultsAreEvicted() {
+        var evalApply = new AnalyzingEvalApply();
+        var environment = new StandardEnvironment();
+        eval(evalApply, environment, "(define square (memoize (lambda (x) (* x x)) 2))");
+        var square = (MemoizedProcedure) environment.lookUpVariable("square");
+
+        eval(evalApply, environment, "(square 1)");
+        eval(evalApply, environment, "(square 2)");
+        eval(evalApply, environment, "(square 1)");
+        eval(evalApply, environment, "(square 3)");
+        // 2 was evicted, 1 was not.
+        eval(evalApply, environment, "(square 1)");
+        eval(evalApply, environment, "(square 2)");
+
+        assertThat(square.size()).isEqualTo(2);
+        assertThat(square.capacity()).isEqualTo(2);
+        assertThat(square.hits()).isEqualTo(2);
+        assertThat(square.misses()).isEqualTo(4);
+    }
+
+    @Test
+    void canBeCalledFromManyThreads() throws Exception {
+        var evalApply = new AnalyzingEvalApply();
+        var environment = new StandardEnvironment();
+        eval(evalApply, environment,
+            "(defn-memo fib (n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))");
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            List<Future<LispExpression>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(
+                    () -> new AnalyzingEvalApply().eval(LispReader.parse("(fib 60)"),
+                        environment)));
+            }
+            for (var result : results) {
+                assertThat(result.get()).isEqualTo(new IntegerLiteral(1548008755920L));
+            }
+        }
+        assertThat(((MemoizedProcedure) environment.lookUpVariable("fib")).size())
+            .isEqualTo(61);
+    }
+
+    @Test
+    void badArgumentsFail() {
+        var evalApply = new AnalyzingEvalApply();
+        var environment = new StandardEnvironment();
+
+        assertThat(assertThrows(RuntimeException.class,
+            () -> eval(evalApply, environment, "(memoize 1)")))
+            .hasMessage("First argument to memoize must be a procedure");
+        assertThat(assertThrows(RuntimeException.class,
+            () -> eval(evalApply, environment, "(memoize car -1)")))
+            .hasMessageContaining("non-negative integer");
+    }
+}
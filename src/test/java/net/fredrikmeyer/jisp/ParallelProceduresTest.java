@@ -0,0 +1,105 @@
+package net.fredrikmeyer.jisp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.ParallelProcedures;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.EvalApply;
+import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+import net.fredrikmeyer.jisp.parser.LispReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class ParallelProceduresTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    private LispExpression eval(EvalApply evalApply, Environment environment, String source) {
+        return evalApply.eval(LispReader.parse(source), environment);
+    }
+
+    private Environment environment() {
+        var environment = new StandardEnvironment();
+        environment.setVariable("pmap", ParallelProcedures.map(pool, 2));
+        environment.setVariable("pfilter", ParallelProcedures.filter(pool, 2));
+        return environment;
+    }
+
+    private static LispList numbers(int... values) {
+        return new LispList(IntStream.of(values).mapToObj(IntegerLiteral::of)
+            .map(LispExpression.class::cast).toList());
+    }
+
+    @Test
+    void mapsInOrder() {
+        var environment = environment();
+        var evalApply = new AnalyzingEvalApply();
+        eval(evalApply, environment,
+            "(defn fib (n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))");
+        eval(evalApply, environment, "(define ns '(1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17))");
+
+        var result = eval(evalApply, environment, "(pmap fib ns)");
+
+        assertThat(result).isEqualTo(eval(evalApply, environment, "(map fib ns)"));
+    }
+
+    @Test
+    void filtersInOrder() {
+        var environment = environment();
+        var evalApply = new StandardEvalApply();
+        eval(evalApply, environment, "(defn even? (x) (= (% x 2) 0))");
+
+        var result = eval(evalApply, environment, "(pfilter even? '(1 2 3 4 5 6 7 8 9 10))");
+
+        assertThat(result).isEqualTo(numbers(2, 4, 6, 8, 10));
+    }
+
+    @Test
+    @Timeout(10)
+    void filtersLargeListsInLinearTime() {
+        var environment = environment();
+        var evalApply = new AnalyzingEvalApply();
+        int size = 200_000;
+        environment.setVariable("ns", numbers(IntStream.range(0, size).toArray()));
+
+        var result = (LispList) eval(evalApply, environment,
+            "(pfilter (lambda (x) (= (% x 2) 0)) ns)");
+
+        assertThat(result.length()).isEqualTo(size / 2);
+        assertThat(result.elements().getLast()).isEqualTo(IntegerLiteral.of(size - 2));
+    }
+
+    @Test
+    void shortListsAndBuiltInsWork() {
+        var environment = environment();
+        var evalApply = new AnalyzingEvalApply();
+
+        assertThat(eval(evalApply, environment, "(pmap abs '(-1))")).isEqualTo(numbers(1));
+        assertThat(eval(evalApply, environment, "(pmap abs '())")).isEqualTo(numbers());
+        assertThat(eval(evalApply, new StandardEnvironment(), "(pmap abs '(-1 2 -3))"))
+            .isEqualTo(numbers(1, 2, 3));
+    }
+
+    @Test
+    void errorsInTheProcedureAreThrown() {
+        var environment = environment();
+        var evalApply = new AnalyzingEvalApply();
+
+        assertThrows(RuntimeException.class,
+            () -> eval(evalApply, environment, "(pmap car '((1) (2) 3 (4)))"));
+        assertThrows(RuntimeException.class,
+            () -> eval(evalApply, environment, "(pmap 1 '(1 2))"));
+    }
+}
@@ -3,13 +3,15 @@ package net.fredrikmeyer.jisp;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.math.BigInteger;
 import java.util.List;
 import java.util.stream.Stream;
 import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
-import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
 import net.fredrikmeyer.jisp.parser.ParserImpl;
 import net.fredrikmeyer.jisp.tokenizer.Token;
 import net.fredrikmeyer.jisp.tokenizer.Token.EOF;
+import net.fredrikmeyer.jisp.tokenizer.TokenStream;
 import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -40,6 +42,24 @@ class ParserImplTest {
         assertThat(((LispLiteral.NumberLiteral) res).value()).isEqualTo(2);
     }
 
+    @Test
+    public void parsesIntegerLiterals() {
+        assertThat(new ParserImpl().parse(List.of(new Token.IntegerLiteral(2), new Token.EOF())))
+            .isEqualTo(new IntegerLiteral(2));
+        assertThat(new ParserImpl().parse(
+            List.of(new Token.BigIntegerLiteral(BigInteger.TEN.pow(20), 0), new Token.EOF())))
+            .isEqualTo(new LispLiteral.BigIntegerLiteral(BigInteger.TEN.pow(20)));
+    }
+
+    @Test
+    public void symbolsAreInterned() {
+        var res = (LispList) new ParserImpl().parse(new TokenizerImpl().tokenize("(f x x)"));
+
+        assertThat(res.cadr()).isSameAs(res.caddr());
+        assertThat(res.car()).isSameAs(LispSymbol.of("f"));
+        assertThat(LispSymbol.of("f")).isEqualTo(LispSymbol.of("f"));
+    }
+
     @Test
     public void parseSimpleExpression() {
         LispExpression res = new ParserImpl().parse(
@@ -52,7 +72,7 @@ class ParserImplTest {
 
         assertThat(res).isInstanceOf(LispList.class);
         assertThat(res).isEqualTo(new LispList(
-            List.of(new LispSymbol("+"), new LispLiteral.NumberLiteral(2.0),
+            List.of(LispSymbol.of("+"), new LispLiteral.NumberLiteral(2.0),
                 new LispLiteral.NumberLiteral(3.0))));
     }
 
@@ -66,8 +86,8 @@ class ParserImplTest {
                 new Token.EOF()));
 
         assertThat(res).isInstanceOf(LispList.class);
-        assertThat(res).isEqualTo(new LispList(List.of(new LispSymbol("+"), new LispList(
-            List.of(new LispSymbol("*"), new LispLiteral.NumberLiteral(2.0),
+        assertThat(res).isEqualTo(new LispList(List.of(LispSymbol.of("+"), new LispList(
+            List.of(LispSymbol.of("*"), new LispLiteral.NumberLiteral(2.0),
                 new LispLiteral.NumberLiteral(3.0))), new LispLiteral.NumberLiteral(3.0))));
     }
 
@@ -84,13 +104,13 @@ class ParserImplTest {
         return Stream.of(
             Arguments.arguments(tokenizer.tokenize("(+ (* 2 3))"),
                 new LispList(
-                    List.of(new LispSymbol("+"), new LispList(
-                        List.of(new LispSymbol("*"), new LispLiteral.NumberLiteral(2.0),
-                            new LispLiteral.NumberLiteral(3.0)))))),
+                    List.of(LispSymbol.of("+"), new LispList(
+                        List.of(LispSymbol.of("*"), new IntegerLiteral(2),
+                            new IntegerLiteral(3)))))),
             Arguments.arguments(tokenizer.tokenize("(lambda (x) (+ 1 x))"),
-                new LispList(new LispSymbol("lambda"), new LispList(new LispSymbol("x")),
-                    new LispList(new LispSymbol("+"), new LispLiteral.NumberLiteral(1.0),
-                        new LispSymbol("x")))),
+                new LispList(LispSymbol.of("lambda"), new LispList(LispSymbol.of("x")),
+                    new LispList(LispSymbol.of("+"), new IntegerLiteral(1),
+                        LispSymbol.of("x")))),
             Arguments.arguments(tokenizer.tokenize("(())"), new LispList((new LispList()))));
     }
 
@@ -121,8 +141,8 @@ class ParserImplTest {
         assertThat(res).isInstanceOf(LispList.class);
         assertThat(res).isEqualTo(new LispList(
             List.of(
-                new LispSymbol("quote"),
-                new LispList(new NumberLiteral(1.0), new NumberLiteral(2.0)))));
+                LispSymbol.of("quote"),
+                new LispList(new IntegerLiteral(1), new IntegerLiteral(2)))));
     }
 
     @Test
@@ -134,12 +154,12 @@ class ParserImplTest {
         assertThat(res).isInstanceOf(LispList.class);
         assertThat(res).isEqualTo(new LispList(
             List.of(
-                new LispSymbol("begin"),
-                new LispLiteral.NumberLiteral(1.0),
-                new LispList(new LispSymbol("begin"),
-                    new NumberLiteral(2.0),
-                    new LispList(new LispSymbol("quote"),
-                        new LispList(new NumberLiteral(1.0), new NumberLiteral(2.0)))))));
+                LispSymbol.of("begin"),
+                new IntegerLiteral(1),
+                new LispList(LispSymbol.of("begin"),
+                    new IntegerLiteral(2),
+                    new LispList(LispSymbol.of("quote"),
+                        new LispList(new IntegerLiteral(1), new IntegerLiteral(2)))))));
     }
 
     @Test
@@ -150,6 +170,26 @@ class ParserImplTest {
 
         assertThat(res).isInstanceOf(LispSymbol.class);
         assertThat(res).isEqualTo(
-            new LispSymbol("define1"));
+            LispSymbol.of("define1"));
+    }
+
+    @Test
+    void readsOneExpressionAtATime() {
+        var tokens = TokenStream.of("(define x 1) x\n(list 'a 'b)");
+        var parser = new ParserImpl();
+
+        assertThat(parser.read(tokens)).isEqualTo(new LispList(LispSymbol.of("define"),
+            LispSymbol.of("x"), new IntegerLiteral(1)));
+        assertThat(parser.read(tokens)).isEqualTo(LispSymbol.of("x"));
+        assertThat(parser.read(tokens)).isEqualTo(new LispList(LispSymbol.of("list"),
+            new LispList(LispSymbol.of("quote"), LispSymbol.of("a")),
+            new LispList(LispSymbol.of("quote"), LispSymbol.of("b"))));
+        assertThat(parser.read(tokens)).isNull();
+    }
+
+    @Test
+    void readingAnUnfinishedListFails() {
+        assertThrows(RuntimeException.class,
+            () -> new ParserImpl().read(TokenStream.of("(define x")));
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,22 @@
 package net.fredrikmeyer.jisp;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.BuiltInProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
 import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
+import net.fredrikmeyer.jisp.environment.BuiltInEnvironment;
 import net.fredrikmeyer.jisp.environment.Environment;
 import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.parser.LispReader;
 import org.junit.jupiter.api.Test;
 
 class StandardEnvironmentTest {
@@ -39,4 +50,71 @@ class StandardEnvironmentTest {
         assertThat(extended.lookUpVariable("y")).isEqualTo(new NumberLiteral(123.));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void canExtendEnvironmentWithArgumentValues() {
+        StandardEnvironment env = new StandardEnvironment();
+        env.setVariable("x", new NumberLiteral(1.0));
+
+        Environment extended = env.extendEnvironment(List.of("y", "z"),
+            new LispExpression[]{new IntegerLiteral(2), new IntegerLiteral(3)});
+
+        assertThat(extended.lookUpVariable("x")).isEqualTo(new NumberLiteral(1.0));
+        assertThat(extended.lookUpVariable("z")).isEqualTo(new IntegerLiteral(3));
+        assertThat(assertThrows(IllegalArgumentException.class,
+            () -> env.extendEnvironment(List.of("y", "y"),
+                new LispExpression[]{new IntegerLiteral(2), new IntegerLiteral(3)})))
+            .hasMessage("Duplicate argument: y");
+    }
+
+    @Test
+    public void builtInsAreSharedBetweenEnvironments() {
+        StandardEnvironment first = new StandardEnvironment();
+        StandardEnvironment second = new StandardEnvironment();
+
+        assertThat(first.lookUpVariable("+")).isNotNull();
+        assertThat(first.lookUpVariable("+")).isSameAs(second.lookUpVariable("+"));
+    }
+
+    @Test
+    public void childEnvironmentsOnlyHoldTheirOwnBindings() {
+        StandardEnvironment env = new StandardEnvironment();
+
+        Environment extended = env.extendEnvironment(Map.of("y", new NumberLiteral(1.0)));
+
+        assertThat(extended.toString()).startsWith("StandardEnvironment{env={y=1.0}, parent=");
+        assertThat(extended.lookUpVariable("+")).isSameAs(env.lookUpVariable("+"));
+    }
+
+    @Test
+    public void definingABuiltInNameOnlyShadowsIt() {
+        StandardEnvironment env = new StandardEnvironment();
+        env.setVariable("+", new NumberLiteral(1.0));
+
+        assertThat(env.lookUpVariable("+")).isEqualTo(new NumberLiteral(1.0));
+        assertThat(new StandardEnvironment().lookUpVariable("+")).isInstanceOf(BuiltInProcedure.class);
+        assertThrows(UnsupportedOperationException.class,
+            () -> BuiltInEnvironment.getInstance().setVariable("+", new NumberLiteral(1.0)));
+    }
+
+    @Test
+    public void globalsCanBeDefinedAndReadFromManyThreads() throws Exception {
+        StandardEnvironment env = new StandardEnvironment();
+        var evalApply = new AnalyzingEvalApply();
+        evalApply.eval(LispReader.parse("(defn square (x) (* x x))"), env);
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            List<Future<LispExpression>> results = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String source = "(begin (define x" + i + " (square " + i + ")) x" + i + ")";
+                results.add(executor.submit(() -> evalApply.eval(LispReader.parse(source), env)));
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertThat(results.get(i).get()).isEqualTo(IntegerLiteral.of((long) i * i));
+            }
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(env.lookUpVariable("x" + i)).isEqualTo(IntegerLiteral.of((long) i * i));
+        }
+    }
+}
@@ -7,10 +7,16 @@ import java.util.List;
 import java.util.Map;
 import net.fredrikmeyer.jisp.LispExpression.LispSymbol;
 import net.fredrikmeyer.jisp.LispExpression.Procedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.AnalyzedProcedure;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
 import net.fredrikmeyer.jisp.LispLiteral.NumberLiteral;
 import net.fredrikmeyer.jisp.LispLiteral.StringLiteral;
 import net.fredrikmeyer.jisp.environment.Environment;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
 import net.fredrikmeyer.jisp.evaluator.StandardEvalApply;
+import net.fredrikmeyer.jisp.parser.ParserImpl;
+import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
 import org.junit.jupiter.api.Test;
 
 class StandardEvalApplyTest {
@@ -76,7 +82,7 @@ class StandardEvalApplyTest {
         };
 
         evalApply.eval(new LispList(
-                List.of(new LispSymbol("define"), new LispSymbol("x"),
+                List.of(LispSymbol.of("define"), LispSymbol.of("x"),
                     new NumberLiteral(120.4))),
             environment);
 
@@ -89,8 +95,8 @@ class StandardEvalApplyTest {
 
         // (lambda (x) (+ x 2))
         var res = evalApply.eval(new LispList(
-            List.of(new LispSymbol("lambda"), new LispList(List.of(new LispSymbol("x"))),
-                new LispList(List.of(new LispSymbol("+"), new LispSymbol("x"),
+            List.of(LispSymbol.of("lambda"), new LispList(List.of(LispSymbol.of("x"))),
+                new LispList(List.of(LispSymbol.of("+"), LispSymbol.of("x"),
                     new LispLiteral.NumberLiteral(2.0))))), dummyEnvironment());
 
         assertThat(res).isInstanceOf(Procedure.class);
@@ -101,10 +107,10 @@ class StandardEvalApplyTest {
         StandardEvalApply evalApply = new StandardEvalApply();
 
         var res = evalApply.eval(new LispList(
-                List.of(new LispSymbol("quote"), new LispList(List.of(new LispSymbol("x"))))),
+                List.of(LispSymbol.of("quote"), new LispList(List.of(LispSymbol.of("x"))))),
             dummyEnvironment());
 
-        assertThat(res).isEqualTo(new LispList(List.of(new LispSymbol("x"))));
+        assertThat(res).isEqualTo(new LispList(List.of(LispSymbol.of("x"))));
     }
 
     @Test
@@ -150,9 +156,9 @@ class StandardEvalApplyTest {
 
         // Define a function: (defn add (x y) (+ x y))
         evalApply.eval(new LispList(
-                List.of(new LispSymbol("defn"), new LispSymbol("add"),
-                    new LispList(List.of(new LispSymbol("x"), new LispSymbol("y"))),
-                    new LispList(List.of(new LispSymbol("+"), new LispSymbol("x"), new LispSymbol("y"))))),
+                List.of(LispSymbol.of("defn"), LispSymbol.of("add"),
+                    new LispList(List.of(LispSymbol.of("x"), LispSymbol.of("y"))),
+                    new LispList(List.of(LispSymbol.of("+"), LispSymbol.of("x"), LispSymbol.of("y"))))),
             environment);
 
         // Verify that the function is defined
@@ -174,10 +180,101 @@ class StandardEvalApplyTest {
 
         // Call the function: (add 2 3)
         var result = evalApply.eval(new LispList(
-                List.of(new LispSymbol("add"), new NumberLiteral(2.0), new NumberLiteral(3.0))),
+                List.of(LispSymbol.of("add"), new NumberLiteral(2.0), new NumberLiteral(3.0))),
             environment);
 
         // Verify the result
         assertThat(result).isEqualTo(new NumberLiteral(5.0));
     }
+
+    @Test
+    public void hotProceduresAreAnalyzed() {
+        StandardEvalApply evalApply = new StandardEvalApply();
+        Environment environment = new StandardEnvironment();
+        evalApply.eval(parse("(defn make-constant (x) (lambda () x))"), environment);
+
+        assertThat(evalApply.eval(parse("(make-constant 1)"), environment))
+            .isInstanceOf(UserProcedure.class);
+        for (int i = 0; i < 200; i++) {
+            evalApply.eval(parse("(make-constant 1)"), environment);
+        }
+
+        var constant = evalApply.eval(parse("(make-constant 1)"), environment);
+        assertThat(constant).isInstanceOf(AnalyzedProcedure.class);
+        assertThat(evalApply.apply((Procedure) constant, List.of()))
+            .isEqualTo(new IntegerLiteral(1));
+    }
+
+    @Test
+    public void mapCallsProceduresWithTheCallingEvaluator() {
+        StandardEvalApply evalApply = new StandardEvalApply();
+        Environment environment = new StandardEnvironment();
+        evalApply.eval(parse("(defn make-constant (x) (lambda () x))"), environment);
+
+        // Counted by the evaluator calling map, so make-constant gets hot.
+        evalApply.eval(parse("(map make-constant '(" + "1 ".repeat(200) + "))"), environment);
+
+        assertThat(evalApply.eval(parse("(make-constant 1)"), environment))
+            .isInstanceOf(AnalyzedProcedure.class);
+    }
+
+    @Test
+    public void hotProceduresWithIdenticalBodiesKeepTheirOwnArguments() {
+        StandardEvalApply evalApply = new StandardEvalApply();
+        Environment environment = new StandardEnvironment();
+        // The literal 7 and the symbol x are shared objects, so the bodies are identical.
+        evalApply.eval(parse("(defn k1 (x) 7)"), environment);
+        evalApply.eval(parse("(defn k2 (a b c d) 7)"), environment);
+        evalApply.eval(parse("(defn first (x y) x)"), environment);
+        evalApply.eval(parse("(defn second (y x) x)"), environment);
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(evalApply.eval(parse("(k1 1)"), environment))
+                .isEqualTo(new IntegerLiteral(7));
+            assertThat(evalApply.eval(parse("(k2 1 2 3 4)"), environment))
+                .isEqualTo(new IntegerLiteral(7));
+            assertThat(evalApply.eval(parse("(first 1 2)"), environment))
+                .isEqualTo(new IntegerLiteral(1));
+            assertThat(evalApply.eval(parse("(second 1 2)"), environment))
+                .isEqualTo(new IntegerLiteral(2));
+        }
+    }
+
+    @Test
+    public void loopsBecomingHotStillRunInConstantStack() {
+        StandardEvalApply evalApply = new StandardEvalApply();
+        Environment environment = new StandardEnvironment();
+        evalApply.eval(parse(
+                "(defn count-down (n acc) (if (= n 0) acc (count-down (- n 1) (+ acc 1))))"),
+            environment);
+
+        assertThat(evalApply.eval(parse("(count-down 1000000 0)"), environment))
+            .isEqualTo(new IntegerLiteral(1000000));
+    }
+
+    @Test
+    public void builtInsAreCalledThroughTheirArity() {
+        var evalApply = new StandardEvalApply();
+        Environment environment = new StandardEnvironment();
+        environment.setVariable("pair", new Procedure.BuiltInProcedure("pair") {
+            @Override
+            public LispExpression apply(LispExpression... values) {
+                return new IntegerLiteral(values.length);
+            }
+
+            @Override
+            public LispExpression apply2(LispExpression a, LispExpression b) {
+                return new LispList(a, b);
+            }
+        });
+
+        assertThat(evalApply.eval(parse("(pair 1 (pair 2 3))"), environment))
+            .isEqualTo(parse("(1 (2 3))"));
+        assertThat(evalApply.eval(parse("(pair 1 2 3 4)"), environment))
+            .isEqualTo(new IntegerLiteral(4));
+    }
+
+    private static LispExpression parse(String input) {
+        return new ParserImpl().parse(new TokenizerImpl().tokenize(input));
+    }
 }
@@ -1,11 +1,26 @@
 package net.fredrikmeyer.jisp;
 
+import net.fredrikmeyer.jisp.tokenizer.CompactTokens;
 import net.fredrikmeyer.jisp.tokenizer.Token;
 import net.fredrikmeyer.jisp.tokenizer.Token.LeftParen;
 import net.fredrikmeyer.jisp.tokenizer.Token.RightParen;
+import net.fredrikmeyer.jisp.tokenizer.TokenStream;
 import net.fredrikmeyer.jisp.tokenizer.TokenizerImpl;
 import org.junit.jupiter.api.Test;
-
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -78,10 +93,10 @@ class TokenizerImplTest {
         List<Token> result = new TokenizerImpl().tokenize("1 2 3 -4");
 
         assertThat(result).containsExactly(
-            new Token.NumberLiteral(1, 0),
-            new Token.NumberLiteral(2, 2),
-            new Token.NumberLiteral(3, 4),
-            new Token.NumberLiteral(-4, 6),
+            new Token.IntegerLiteral(1, 0),
+            new Token.IntegerLiteral(2, 2),
+            new Token.IntegerLiteral(3, 4),
+            new Token.IntegerLiteral(-4, 6),
             new Token.EOF(8)
         );
     }
@@ -95,8 +110,8 @@ class TokenizerImplTest {
         assertThat(result).containsExactly(
             new Token.LeftParen(0),
             new Token.Symbol("+", 1),
-            new Token.NumberLiteral(1.0, 3),
-            new Token.NumberLiteral(2.0, 5),
+            new Token.IntegerLiteral(1, 3),
+            new Token.IntegerLiteral(2, 5),
             new Token.RightParen(6),
             new Token.EOF(7));
     }
@@ -110,11 +125,11 @@ class TokenizerImplTest {
         assertThat(result).containsExactly(
             new Token.LeftParen(0),
             new Token.Symbol("+", 1),
-            new Token.NumberLiteral(2, 3),
+            new Token.IntegerLiteral(2, 3),
             new Token.LeftParen(5),
             new Token.Symbol("*", 6),
-            new Token.NumberLiteral(3, 8),
-            new Token.NumberLiteral(4, 10),
+            new Token.IntegerLiteral(3, 8),
+            new Token.IntegerLiteral(4, 10),
             new Token.RightParen(11),
             new Token.RightParen(12),
             new Token.EOF(13));
@@ -147,7 +162,7 @@ class TokenizerImplTest {
             new Token.LeftParen(8),
             new Token.Symbol("+", 9),
             new Token.LeftParen(11),
-            new Token.NumberLiteral(1, 12),
+            new Token.IntegerLiteral(1, 12),
             new Token.Symbol("-", 14),
             new Token.StringLiteral("yo", 17),
             new Token.StringLiteral("hello", 22),
@@ -169,7 +184,7 @@ class TokenizerImplTest {
             new Token.LeftParen(12),
             new Token.Symbol("+", 13),
             new Token.Symbol("x", 15),
-            new Token.NumberLiteral(2, 17),
+            new Token.IntegerLiteral(2, 17),
             new Token.RightParen(18),
             new Token.RightParen(19),
             new Token.EOF(20)
@@ -197,7 +212,7 @@ class TokenizerImplTest {
             new Token.LeftParen(0),
             new Token.Symbol("define", 1),
             new Token.Symbol("a", 8),
-            new Token.NumberLiteral(2, 10),
+            new Token.IntegerLiteral(2, 10),
             new Token.RightParen(11),
             new Token.EOF(12)
         );
@@ -210,9 +225,9 @@ class TokenizerImplTest {
         assertThat(result).containsExactly(
             new Token.LeftParen(0),
             new Token.Symbol("=", 1),
-            new Token.NumberLiteral(1, 3),
-            new Token.NumberLiteral(2, 5),
-            new Token.NumberLiteral(3, 7),
+            new Token.IntegerLiteral(1, 3),
+            new Token.IntegerLiteral(2, 5),
+            new Token.IntegerLiteral(3, 7),
             new Token.RightParen(8),
             new Token.EOF(9)
         );
@@ -225,8 +240,8 @@ class TokenizerImplTest {
         assertThat(result).containsExactly(
             new Token.Quote(0),
             new Token.LeftParen(1),
-            new Token.NumberLiteral(1, 2),
-            new Token.NumberLiteral(2, 4),
+            new Token.IntegerLiteral(1, 2),
+            new Token.IntegerLiteral(2, 4),
             new Token.RightParen(5),
             new Token.EOF(6)
         );
@@ -253,6 +268,16 @@ class TokenizerImplTest {
         );
     }
 
+    @Test
+    public void canParseIntegerTooLargeForLong() {
+        List<Token> result = new TokenizerImpl().tokenize("9223372036854775808");
+
+        assertThat(result).containsExactly(
+            new Token.BigIntegerLiteral(new BigInteger("9223372036854775808"), 0),
+            new Token.EOF(19)
+        );
+    }
+
     @Test
     void canParseVariableEndingInNumber() {
         List<Token> result = new TokenizerImpl().tokenize("define1");
@@ -262,4 +287,107 @@ class TokenizerImplTest {
             new Token.EOF(7)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void streamsTokensFromAChannel() {
+        String source = "(define (f x) (+ x 1.5)) \"text\" #t 'a ".repeat(1000);
+
+        var stream = TokenStream.of(Channels.newChannel(
+            new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8))));
+        List<Token> streamed = new ArrayList<>();
+        stream.forEachRemaining(streamed::add);
+
+        assertThat(source.length()).isGreaterThan(8192);
+        assertThat(streamed).hasSize(16001);
+        assertThat(streamed.getLast()).isEqualTo(new Token.EOF(source.length()));
+        assertThat(streamed.get(15999)).isEqualTo(new Token.Symbol("a", source.length() - 2));
+    }
+
+    @Test
+    void tokenizesAMappedFileLikeAString(@TempDir Path directory) throws IOException {
+        String source = "(define (f x) (+ x -1.5)) \"text\" #t 'a 12345678901234567890 - + ";
+        Path file = directory.resolve("source.scm");
+        Files.writeString(file, source);
+
+        List<Token> mapped = new ArrayList<>();
+        try (var stream = TokenStream.map(file)) {
+            stream.forEachRemaining(mapped::add);
+        }
+
+        assertThat(mapped).isEqualTo(new TokenizerImpl().tokenize(source));
+    }
+
+    @Test
+    void tokenizesACharSequenceLikeAString() {
+        String source = "(define (f x) (+ x -1.5)) \"text\" #t 'a 12345678901234567890 - + ";
+
+        List<Token> tokens = new ArrayList<>();
+        TokenStream.of(new StringBuilder(source)).forEachRemaining(tokens::add);
+
+        assertThat(tokens).isEqualTo(new TokenizerImpl().tokenize(source));
+    }
+
+    @Test
+    void decodesUtf8InStringsAndSymbols() {
+        var stream = TokenStream.of(
+            ByteBuffer.wrap("(blåbær \"æøå\")".getBytes(StandardCharsets.UTF_8)));
+        List<Token> tokens = new ArrayList<>();
+        stream.forEachRemaining(tokens::add);
+
+        assertThat(tokens).containsExactly(
+            new Token.LeftParen(0),
+            new Token.Symbol("blåbær", 1),
+            new Token.StringLiteral("æøå", 11),
+            new Token.RightParen(18),
+            new Token.EOF(19));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.1", "-0.0", "3.14159", "123456789012345.6", "1.0000000000000002",
+        "0.30000000000000004", "12345678901234567.89", "1."})
+    void decimalsAreConvertedExactly(String decimal) {
+        assertThat(new TokenizerImpl().tokenize(decimal).getFirst())
+            .isEqualTo(new Token.NumberLiteral(Double.parseDouble(decimal), 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"999999999999999999", "-999999999999999999", "9223372036854775807",
+        "-9223372036854775808"})
+    void integersAreConvertedExactly(String integer) {
+        assertThat(new TokenizerImpl().tokenize(integer).getFirst())
+            .isEqualTo(new Token.IntegerLiteral(Long.parseLong(integer), 0));
+    }
+
+    @Test
+    void tokensLongerThanTheBufferAreRead() {
+        String text = "x".repeat(20000);
+
+        var stream = new TokenStream(new StringReader("(f \"" + text + "\" " + text + ")"));
+        List<Token> tokens = new ArrayList<>();
+        stream.forEachRemaining(tokens::add);
+
+        assertThat(tokens.get(2)).isEqualTo(new Token.StringLiteral(text, 4));
+        assertThat(tokens.get(3)).isEqualTo(new Token.Symbol(text, 20006));
+        assertThat(tokens.getLast()).isEqualTo(new Token.EOF(40007));
+    }
+
+    @Test
+    void compactTokensKeepKindAndPosition() {
+        var tokens = CompactTokens.tokenize("(define x \"hi\") '(1 2.5 #t)");
+
+        assertThat(tokens.size()).isEqualTo(12);
+        assertThat(tokens.kind(0)).isEqualTo(CompactTokens.LEFT_PAREN);
+        assertThat(tokens.kind(1)).isEqualTo(CompactTokens.SYMBOL);
+        assertThat(tokens.text(1)).isEqualTo("define");
+        assertThat(tokens.kind(3)).isEqualTo(CompactTokens.STRING);
+        assertThat(tokens.text(3)).isEqualTo("hi");
+        assertThat(tokens.start(3)).isEqualTo(11);
+        assertThat(tokens.kind(5)).isEqualTo(CompactTokens.QUOTE);
+        assertThat(tokens.kind(7)).isEqualTo(CompactTokens.INTEGER);
+        assertThat(tokens.kind(8)).isEqualTo(CompactTokens.DECIMAL);
+        assertThat(tokens.text(8)).isEqualTo("2.5");
+        assertThat(tokens.kind(9)).isEqualTo(CompactTokens.BOOLEAN);
+        assertThat(tokens.text(9)).isEqualTo("#t");
+        assertThat(tokens.kind(11)).isEqualTo(CompactTokens.END_OF_INPUT);
+    }
+}
@@ -0,0 +1,35 @@
+package net.fredrikmeyer.jisp.environment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import net.fredrikmeyer.jisp.LispLiteral.IntegerLiteral;
+import org.junit.jupiter.api.Test;
+
+class BindingTest {
+
+    @Test
+    void generationsNoOneKeepsAreForgotten() throws InterruptedException {
+        var kept = Binding.generation("kept-name");
+        for (int i = 0; i < 10_000; i++) {
+            Binding.generation("made-up-name-" + i);
+        }
+
+        for (int i = 0; i < 50 && Binding.generations() >= 5_000; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(Binding.generations()).isLessThan(5_000);
+        assertThat(Binding.generation("kept-name")).isSameAs(kept);
+    }
+
+    @Test
+    void definingANameMovesItsGenerationOn() {
+        var generation = Binding.generation("defined-name");
+        int seen = generation.get();
+
+        new StandardEnvironment().setVariable("defined-name", new IntegerLiteral(1));
+
+        assertThat(generation.get()).isNotEqualTo(seen);
+    }
+}
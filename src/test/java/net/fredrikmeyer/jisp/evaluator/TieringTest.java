@@ -0,0 +1,79 @@
+package net.fredrikmeyer.jisp.evaluator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.fredrikmeyer.jisp.LispExpression.Procedure.UserProcedure;
+import net.fredrikmeyer.jisp.LispLiteral.StringLiteral;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import org.junit.jupiter.api.Test;
+
+class TieringTest {
+
+    @Test
+    void profilesAreCapped() {
+        var tiering = new Tiering();
+        var environment = new StandardEnvironment();
+        var hot = new UserProcedure(environment, List.of("x"), new StringLiteral("hot"));
+        for (int i = 0; i < Tiering.HOT; i++) {
+            tiering.invoked(hot);
+        }
+
+        for (int i = 0; i < 2 * Tiering.MAX_PROFILES; i++) {
+            tiering.invoked(new UserProcedure(environment, List.of("x"), new StringLiteral("")));
+            if (i % 100 == 0) {
+                assertThat(tiering.invoked(hot)).isNotNull();
+            }
+        }
+
+        assertThat(tiering.size()).isEqualTo(Tiering.MAX_PROFILES);
+        // Called recently enough to be kept.
+        assertThat(tiering.invoked(hot)).isNotNull();
+    }
+
+    @Test
+    void canBeSharedBetweenThreads() throws Exception {
+        var tiering = new Tiering();
+        var environment = new StandardEnvironment();
+        var shared = new UserProcedure(environment, List.of("x"), new StringLiteral("shared"));
+
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                done.add(executor.submit(() -> {
+                    for (int i = 0; i < Tiering.MAX_PROFILES; i++) {
+                        tiering.invoked(shared);
+                        tiering.invoked(
+                            new UserProcedure(environment, List.of("x"), new StringLiteral("")));
+                    }
+                }));
+            }
+            for (var future : done) {
+                future.get();
+            }
+        }
+
+        assertThat(tiering.size()).isEqualTo(Tiering.MAX_PROFILES);
+        assertThat(tiering.invoked(shared)).isSameAs(tiering.analyzed(shared));
+    }
+
+    @Test
+    void lambdasSharingABodyGetTheirOwnProfiles() {
+        var tiering = new Tiering();
+        var environment = new StandardEnvironment();
+        var body = new StringLiteral("body");
+        var one = new UserProcedure(environment, List.of("x"), body);
+        var four = new UserProcedure(environment, List.of("a", "b", "c", "d"), body);
+
+        for (int i = 0; i < Tiering.HOT; i++) {
+            tiering.invoked(one);
+        }
+
+        assertThat(tiering.invoked(one).arguments()).containsExactly("x");
+        assertThat(tiering.invoked(four)).isNull();
+        assertThat(tiering.analyzed(four).arguments()).containsExactly("a", "b", "c", "d");
+    }
+}
@@ -0,0 +1,70 @@
+package net.fredrikmeyer.jisp.repl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import net.fredrikmeyer.jisp.evaluator.Node;
+import net.fredrikmeyer.jisp.parser.LispReader;
+import org.junit.jupiter.api.Test;
+
+class ExpressionCacheTest {
+
+    private final AnalyzingEvalApply evalApply = new AnalyzingEvalApply();
+    private final AtomicInteger analyzed = new AtomicInteger();
+
+    private Node analyze(String source) {
+        analyzed.incrementAndGet();
+        return evalApply.analyze(LispReader.parse(source));
+    }
+
+    @Test
+    void repeatedSourcesAreAnalyzedOnce() {
+        var cache = new ExpressionCache(10);
+
+        Node first = cache.get("(+ x 1)", this::analyze);
+        Node second = cache.get("(+ x 1)", this::analyze);
+
+        assertThat(second).isSameAs(first);
+        assertThat(analyzed).hasValue(1);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedSource() {
+        var cache = new ExpressionCache(2);
+
+        cache.get("a", this::analyze);
+        cache.get("b", this::analyze);
+        cache.get("a", this::analyze);
+        cache.get("c", this::analyze);
+        cache.get("a", this::analyze);
+        cache.get("b", this::analyze);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.hits()).isEqualTo(2);
+        assertThat(cache.misses()).isEqualTo(4);
+    }
+
+    @Test
+    void sourcesThatFailAreNotCached() {
+        var cache = new ExpressionCache(10);
+
+        assertThrows(RuntimeException.class, () -> cache.get("(+ 1", this::analyze));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void aCapacityOfZeroCachesNothing() {
+        var cache = new ExpressionCache(0);
+
+        cache.get("1", this::analyze);
+        cache.get("1", this::analyze);
+
+        assertThat(analyzed).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+}
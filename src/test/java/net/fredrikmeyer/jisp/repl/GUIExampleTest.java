@@ -62,8 +62,7 @@ class GUIExampleTest {
 
         // Test simple expression evaluation
         gui.processInputText("(+ 1 2)");
-        assertThat(gui.getOutputText()).contains(">> (+ 1 2)");
-        assertThat(gui.getOutputText()).contains("3.0");
+        assertThat(gui.getOutputText()).contains(">> (+ 1 2)\n3\n");
 
         // Test environment display
         assertThat(gui.getEnvironmentText()).contains("ENV:");
@@ -82,7 +81,7 @@ class GUIExampleTest {
 
         // Use the variable in an expression
         gui.processInputText("(+ x 5)");
-        assertThat(gui.getOutputText()).contains("15.0");
+        assertThat(gui.getOutputText()).contains(">> (+ x 5)\n15\n");
     }
 
     @Test
@@ -104,7 +103,7 @@ class GUIExampleTest {
 
         // Use the function
         gui.processInputText("(square 5)");
-        assertThat(gui.getOutputText()).contains("25.0");
+        assertThat(gui.getOutputText()).contains(">> (square 5)\n25\n");
 
         // Verify the function is in the environment
         assertThat(gui.getEnvironmentText()).contains("square");
@@ -120,10 +119,10 @@ class GUIExampleTest {
 
         // Perform calculations
         gui.processInputText("(+ x y)");
-        assertThat(gui.getOutputText()).contains("30.0");
+        assertThat(gui.getOutputText()).contains(">> (+ x y)\n30\n");
 
         gui.processInputText("(* x y)");
-        assertThat(gui.getOutputText()).contains("200.0");
+        assertThat(gui.getOutputText()).contains(">> (* x y)\n200\n");
 
         // Verify both variables are in the environment
         assertThat(gui.getEnvironmentText()).contains("x");
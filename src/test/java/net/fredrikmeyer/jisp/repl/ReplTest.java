@@ -2,8 +2,12 @@ package net.fredrikmeyer.jisp.repl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import net.fredrikmeyer.jisp.repl.ReplResult.StringValue;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ReplTest {
 
@@ -14,6 +18,33 @@ class ReplTest {
         var answer = repl.write("(+ 1 2)");
 
         assertThat(answer).isInstanceOf(StringValue.class);
-        assertThat(((StringValue) answer).value()).isEqualTo("3.0");
+        assertThat(((StringValue) answer).value()).isEqualTo("3");
     }
-}
\ No newline at end of file
+
+    @Test
+    void repeatedInputIsParsedOnceButSeesNewDefinitions() {
+        Repl repl = new Repl();
+
+        repl.write("(define x 1)");
+        var first = repl.write("(+ x 1)");
+        repl.write("(define x 10)");
+        var second = repl.write("(+ x 1)");
+
+        assertThat(((StringValue) first).value()).isEqualTo("2");
+        assertThat(((StringValue) second).value()).isEqualTo("11");
+        assertThat(repl.cache().hits()).isEqualTo(1);
+        assertThat(repl.cache().misses()).isEqualTo(3);
+    }
+
+    @Test
+    void loadRunsAFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("square.scm");
+        Files.writeString(file, "(defn square (x) (* x x))\n(square 3)\n");
+        Repl repl = new Repl();
+
+        var answer = repl.write("(load \"" + file + "\")");
+
+        assertThat(((StringValue) answer).value()).isEqualTo("9");
+        assertThat(((StringValue) repl.write("(square 4)")).value()).isEqualTo("16");
+    }
+}
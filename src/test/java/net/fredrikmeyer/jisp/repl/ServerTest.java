@@ -0,0 +1,144 @@
+package net.fredrikmeyer.jisp.repl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import net.fredrikmeyer.jisp.Loader;
+import net.fredrikmeyer.jisp.environment.StandardEnvironment;
+import net.fredrikmeyer.jisp.evaluator.AnalyzingEvalApply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ServerTest {
+
+    private Server server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var prelude = new StandardEnvironment();
+        Loader.load(new StringReader("""
+            (defn square (x) (* x x))
+            (define counter 0)
+            (defn bump () (set! counter (+ counter 1)))
+            """), new AnalyzingEvalApply(), prelude);
+        server = Server.start(0, prelude);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    private final class Client implements AutoCloseable {
+
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.port());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, UTF_8);
+        }
+
+        String send(String line) throws IOException {
+            out.println(line);
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    void sessionsSeeThePreludeButNotEachOther() throws IOException {
+        try (var first = new Client(); var second = new Client()) {
+            assertThat(first.send("(define x 3)")).isEqualTo("Ok[]");
+            assertThat(first.send("(square x)")).isEqualTo("9");
+            assertThat(second.send("(square 4)")).isEqualTo("16");
+            assertThat(second.send("x")).isEqualTo("nul");
+        }
+    }
+
+    @Test
+    void sessionsCanNotLoadFiles() throws IOException {
+        try (var client = new Client()) {
+            assertThat(client.send("load")).isEqualTo("nul");
+            assertThat(client.send("(load \"/etc/passwd\")")).startsWith("Procedure expected");
+        }
+    }
+
+    @Test
+    void redefiningThePreludeOnlyShadowsIt() throws IOException {
+        try (var first = new Client(); var second = new Client()) {
+            first.send("(define square (lambda (x) x))");
+
+            assertThat(first.send("(square 5)")).isEqualTo("5");
+            assertThat(second.send("(square 5)")).isEqualTo("25");
+        }
+    }
+
+    @Test
+    void preludeProceduresCanNotChangeThePrelude() throws IOException {
+        try (var first = new Client(); var second = new Client()) {
+            assertThat(first.send("(bump)")).startsWith("Cannot change frozen variable");
+
+            assertThat(second.send("counter")).isEqualTo("0");
+        }
+    }
+
+    @Test
+    void answersPipelinedRequestsInOrder() throws IOException {
+        try (var client = new Client()) {
+            client.out.println("(define y 2)\n(+ y 1)\n(car '())\n(square y)");
+
+            assertThat(client.in.readLine()).isEqualTo("Ok[]");
+            assertThat(client.in.readLine()).isEqualTo("3");
+            assertThat(client.in.readLine()).contains("non-empty list");
+            assertThat(client.in.readLine()).isEqualTo("4");
+        }
+    }
+
+    @Test
+    void exitEndsTheSession() throws IOException {
+        try (var client = new Client()) {
+            client.out.println("exit");
+
+            assertThat(client.in.readLine()).isNull();
+        }
+    }
+
+    @Test
+    void servesManyClientsAtOnce() throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> answers = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int n = i;
+                answers.add(executor.submit(() -> {
+                    try (var client = new Client()) {
+                        client.send("(define n " + n + ")");
+                        return client.send("(square n)");
+                    }
+                }));
+            }
+            for (int i = 0; i < answers.size(); i++) {
+                assertThat(answers.get(i).get()).isEqualTo(String.valueOf(i * i));
+            }
+        }
+        assertThat(server.cache().hits()).isGreaterThan(0);
+    }
+}